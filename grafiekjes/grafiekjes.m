@@ -9,6 +9,19 @@ fcfsUntimelyDeliveries = [2 79 251 300 324 333 299 299 323 300 350];
 advancedAverageDelays = [823900.5 4662231.488888889 7699691.521400779 8238354.6866666665 8282780.387205387 7128842.290849674 7575493.402234637 8138257.410179641 8614200.203821655 8613019.228571428 7795497.114551083];    
 advancedUntimelyDeliveries = [2 90 257 300 297 306 358 334 314 315 323];
 
+%results written by Experiment, if both sweeps have been run (one record per run)
+basicFile = '../rinsim/results_basic_planning.csv';
+advancedFile = '../rinsim/results_advanced_planning.csv';
+if exist(basicFile, 'file') && exist(advancedFile, 'file')
+    fcfs = sortrows(readtable(basicFile), 'spawnRate');
+    advanced = sortrows(readtable(advancedFile), 'spawnRate');
+    arrivalRates = fcfs.spawnRate';
+    fcfsAverageDelays = fcfs.averageDelay';
+    fcfsUntimelyDeliveries = fcfs.usersLate';
+    advancedAverageDelays = advanced.averageDelay';
+    advancedUntimelyDeliveries = advanced.usersLate';
+end
+
 %plots
 %delays
 figure('Name', 'average delays of untimely delivered users');
@@ -0,0 +1,102 @@
+package rinsim;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import com.github.rinde.rinsim.core.model.pdp.Parcel;
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.util.TimeWindow;
+
+/**
+ * Builds the graphs, users and reservations the benchmarks work on, without a simulator.
+ * The stations and pods are built by the TestFixtures of the simulation, from its test jar. All random generators use
+ * TestFixtures.SEED, so that every fork works on the same fixture.
+ */
+class BenchmarkFixtures {
+
+	// The graph size that stands for the hard-coded graph of GraphModel. Other sizes are square grids.
+	static final int CITY_GRAPH = 36;
+	// The number of hops a pod explores with.
+	static final int HOPS = 10;
+
+	private BenchmarkFixtures() {}
+
+	/**
+	 * Create a graph with roughly the given number of nodes.
+	 *
+	 * @param size - CITY_GRAPH for the graph of GraphModel, otherwise the number of nodes of a square grid
+	 * @return Graph<ConnectionData>
+	 */
+	static Graph<ConnectionData> createGraph(int size) {
+		GraphModel gm = new GraphModel();
+		if(size == CITY_GRAPH)
+			return gm.getGraph();
+		int side = (int) Math.round(Math.sqrt(size));
+		return gm.getGridGraph(side, side);
+	}
+
+	/**
+	 * Create a user that waits at a station.
+	 *
+	 * @param start - The station the user waits at
+	 * @param dest - The destination of the user
+	 * @return User
+	 */
+	static User createUser(Station start, Station dest) {
+		User u = new User(Parcel.builder(start.getPosition(), dest.getPosition()).buildDTO(), 3600000, dest);
+		start.getPassengers().add(u);
+		return u;
+	}
+
+	/**
+	 * Fill the calendars of the stations with reservations of another pod at random times.
+	 *
+	 * @param stations - The stations
+	 * @param perStation - The number of reservations per station
+	 * @param owner - The pod the reservations belong to
+	 * @param r - The random generator
+	 */
+	static void addReservations(List<Station> stations, int perStation, Pod owner, Random r) {
+		long span = perStation * 2 * Station.RESERVATION_TIME;
+		for(Station s : stations) {
+			for(int i = 0; i < perStation; i++) {
+				long begin = (long) (r.nextDouble() * span);
+				long end = begin + Station.RESERVATION_TIME;
+				s.getCalendar().add(new Reservation(s, null, TimeWindow.create(begin, end), owner, end));
+			}
+		}
+	}
+
+	/**
+	 * Find a station that lies the given number of hops away from a start station, or as far as possible if the graph is smaller.
+	 *
+	 * @param start - The start station
+	 * @param hops - The number of hops
+	 * @return Station
+	 */
+	static Station findStationAtDistance(Station start, int hops) {
+		HashMap<Station, Integer> distance = new HashMap<>();
+		Queue<Station> queue = new LinkedList<>();
+		distance.put(start, 0);
+		queue.add(start);
+		Station farthest = start;
+		while(!queue.isEmpty()) {
+			Station s = queue.poll();
+			int d = distance.get(s);
+			farthest = s;
+			if(d == hops)
+				break;
+			for(Station n : TestFixtures.getNeighbours(s)) {
+				if(!distance.containsKey(n)) {
+					distance.put(n, d + 1);
+					queue.add(n);
+				}
+			}
+		}
+		return farthest;
+	}
+}
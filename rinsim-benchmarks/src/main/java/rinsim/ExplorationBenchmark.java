@@ -0,0 +1,64 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A single exploration from a station to a destination the given number of hops away,
+ * through stations whose calendars already hold reservations of another pod.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExplorationBenchmark {
+
+	// The number of nodes: 36 is the graph of GraphModel, the others are square grids.
+	@Param({"36", "400", "2500"})
+	public int size;
+	// The number of hops the exploration may take.
+	@Param({"5", "10", "15"})
+	public int hops;
+	// The number of reservations in the calendar of each station.
+	@Param({"0", "5"})
+	public int reservations;
+
+	private Station start;
+	private Station dest;
+	private Pod pod;
+
+	@Setup
+	public void setUp() {
+		SimulationContext context = new SimulationContext(TestFixtures.createConfiguration(false));
+		ArrayList<Station> stations = TestFixtures.createStations(BenchmarkFixtures.createGraph(size), context);
+		start = stations.get(0);
+		dest = BenchmarkFixtures.findStationAtDistance(start, hops);
+		Pod other = new Pod(start.getPosition(), TestFixtures.POD_CAPACITY, null, TestFixtures.SEED, context);
+		// The destination is kept free: it is reserved open-ended, so it could only be entered after its last reservation.
+		stations.remove(dest);
+		BenchmarkFixtures.addReservations(stations, reservations, other, new Random(TestFixtures.SEED));
+		pod = TestFixtures.createPod(start, context);
+	}
+
+	@Benchmark
+	public int forwardExploration() {
+		pod.getIntentions().clear();
+		start.receiveExplorationAnt(dest, hops, pod, 0);
+		return pod.getIntentions().size();
+	}
+}
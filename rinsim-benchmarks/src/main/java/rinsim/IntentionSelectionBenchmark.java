@@ -0,0 +1,69 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Choosing an intention out of the results of the explorations towards the destinations of the users waiting at a station,
+ * or planning a route along several of those destinations (see RoutePlanner).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IntentionSelectionBenchmark {
+
+	// The number of nodes: 36 is the graph of GraphModel, the others are square grids.
+	@Param({"36", "400"})
+	public int size;
+	// The number of users waiting at the station of the pod.
+	@Param({"1", "5", "20"})
+	public int users;
+
+	private Pod pod;
+
+	@Setup
+	public void setUp() {
+		SimulationContext context = new SimulationContext(TestFixtures.createConfiguration(true));
+		ArrayList<Station> stations = TestFixtures.createStations(BenchmarkFixtures.createGraph(size), context);
+		Random r = new Random(TestFixtures.SEED);
+		Station start = stations.get(0);
+		pod = TestFixtures.createPod(start, context);
+
+		for(int i = 0; i < users; i++) {
+			Station dest = BenchmarkFixtures.findStationAtDistance(start, 1 + r.nextInt(BenchmarkFixtures.HOPS));
+			BenchmarkFixtures.createUser(start, dest);
+			start.receiveExplorationAnt(dest, BenchmarkFixtures.HOPS, pod, 0);
+		}
+	}
+
+	@Benchmark
+	public ExplorationPath findBestIntentionBasic() {
+		return pod.findBestIntentionBasic();
+	}
+
+	@Benchmark
+	public ExplorationPath findBestIntentionAdvanced() {
+		return pod.findBestIntentionAdvanced();
+	}
+
+	@Benchmark
+	public ExplorationPath planRoute() {
+		return new RoutePlanner(pod, 0).plan(pod.getCurrentStation().getPassengers());
+	}
+}
@@ -0,0 +1,67 @@
+package rinsim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rinde.rinsim.geom.Point;
+import com.github.rinde.rinsim.util.TimeWindow;
+
+/**
+ * Looking up the earliest free reservation slot in the calendar of a station, at random times.
+ * The reservations are separated by gaps of random length, some too short to fit a reservation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReservationBenchmark {
+
+	// The number of queries that are cycled through. Must be a power of two.
+	private static final int QUERIES = 1024;
+
+	// The number of reservations in the calendar.
+	@Param({"10", "100", "1000"})
+	public int reservations;
+
+	private Station station;
+	private long[] queries = new long[QUERIES];
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		SimulationContext context = new SimulationContext(TestFixtures.createConfiguration(false));
+		Random r = new Random(TestFixtures.SEED);
+		station = new Station(new Point(0, 0), context);
+		Pod other = new Pod(station.getPosition(), TestFixtures.POD_CAPACITY, null, TestFixtures.SEED, context);
+
+		long time = 0;
+		for(int i = 0; i < reservations; i++) {
+			time += (long) (r.nextDouble() * 2 * Station.RESERVATION_TIME);
+			long end = time + Station.RESERVATION_TIME;
+			station.getCalendar().add(new Reservation(station, null, TimeWindow.create(time, end), other, end));
+			time = end;
+		}
+		for(int i = 0; i < QUERIES; i++)
+			queries[i] = (long) (r.nextDouble() * time);
+	}
+
+	@Benchmark
+	public long checkPossibleReservationTime() {
+		next = (next + 1) & (QUERIES - 1);
+		return station.checkPossibleReservationTime(queries[next]).begin();
+	}
+}
@@ -0,0 +1,58 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One roadsign wave per tick, sent out by the stations in turn, followed by the eviction of the roadsigns that have become too weak.
+ * After warmup the tables are in the steady state in which roadsigns are refreshed as often as they expire.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoadSignBenchmark {
+
+	// The number of nodes: 36 is the graph of GraphModel, the others are square grids.
+	@Param({"36", "400", "2500"})
+	public int size;
+
+	private SimulationContext context;
+	private ArrayList<Station> stations;
+	private int next = 0;
+	private long time = 0;
+
+	@Setup
+	public void setUp() {
+		context = new SimulationContext(TestFixtures.createConfiguration(false));
+		stations = TestFixtures.createStations(BenchmarkFixtures.createGraph(size), context);
+	}
+
+	@Benchmark
+	public int makeRoadsign() {
+		Station s = stations.get(next);
+		next = (next + 1) % stations.size();
+		time += RoadSign.DECAY_PERIOD;
+
+		RoadSign rs = new RoadSign();
+		rs.setEndStation(s);
+		rs.setStrength(1);
+		s.receiveRoadSignAnt(rs, time);
+		context.getRoadSignExpiry().evict(time);
+		return context.getRoadSignExpiry().size();
+	}
+}
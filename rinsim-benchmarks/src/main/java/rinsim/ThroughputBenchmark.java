@@ -0,0 +1,188 @@
+package rinsim;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.github.rinde.rinsim.core.Simulator;
+
+/**
+ * End-to-end benchmark of headless simulations on generated grids, from the city graph up to 10,000 nodes.
+ * Per scenario it reports the simulated time per wall second, the percentiles of the wall time of a tick, the allocation rate
+ * of all threads (including the workers of the parallel phases) and the users delivered in the measured time, as a JSON
+ * document that can be compared between builds.
+ * With a dispatch window the users are assigned by a central Dispatcher instead of through roadsigns, so both modes can be
+ * compared on the same workloads. With several decision threads the pods prepare their decisions in parallel (see DecisionPhase).
+ * With several regions the stations are updated in parallel (see StationPhase).
+ *
+ * Usage: java -cp target/benchmarks.jar rinsim.ThroughputBenchmark [output.json] [simulated hours per scenario] [dispatch window in seconds] [decision threads] [regions]
+ */
+public class ThroughputBenchmark {
+
+	// The scenarios: number of nodes (0 is the graph of GraphModel), pods, maximal number of users and users spawned per tick.
+	private static final Scenario[] SCENARIOS = {
+		new Scenario(0, 3, 30, 0.05),
+		new Scenario(400, 30, 500, 0.5),
+		new Scenario(2500, 200, 5000, 5),
+		new Scenario(10000, 1000, 50000, 50),
+	};
+	// The simulated time before measuring, so that users, roadsigns and reservations reach the steady state.
+	private static final long WARMUP_TIME = 600000; // 10 minutes
+	// The simulated time that is measured per scenario, unless given as argument.
+	private static final double MEASURED_HOURS = 1;
+
+	public static void main(String[] args) throws IOException {
+		String path = args.length > 0 ? args[0] : null;
+		long measured = (long) ((args.length > 1 ? Double.parseDouble(args[1]) : MEASURED_HOURS) * 3600000);
+		long dispatchWindow = (long) ((args.length > 2 ? Double.parseDouble(args[2]) : 0) * 1000);
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		int regions = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+		StringBuilder json = new StringBuilder();
+		json.append("{\"measuredTime\": ").append(measured).append(", \"dispatchWindow\": ").append(dispatchWindow).append(", \"decisionThreads\": ").append(threads).append(", \"regions\": ").append(regions).append(", \"scenarios\": [");
+		for(int i = 0; i < SCENARIOS.length; i++) {
+			if(i > 0)
+				json.append(",");
+			json.append("\n  ").append(run(SCENARIOS[i], measured, dispatchWindow, threads, regions));
+		}
+		json.append("\n]}\n");
+
+		if(path == null) {
+			System.out.print(json);
+		} else {
+			Writer output = new FileWriter(path);
+			try {
+				output.write(json.toString());
+			} finally {
+				output.close();
+			}
+		}
+	}
+
+	/**
+	 * Run a scenario and measure it.
+	 *
+	 * @param s - The scenario
+	 * @param measured - The simulated time that is measured
+	 * @param dispatchWindow - The dispatch window of a central Dispatcher, or 0 to use roadsigns
+	 * @param threads - The number of threads on which the pods prepare their decisions, or 0 to decide during their own tick
+	 * @param regions - The number of regions the stations are updated in, or 0 to update them on the thread of the simulator
+	 * @return String - The results as a JSON object
+	 */
+	private static String run(Scenario s, long measured, long dispatchWindow, int threads, int regions) throws IOException {
+		RunConfiguration config = new RunConfiguration(s.spawnRate, false, s.maxUsers, 3600000, 0, TestFixtures.SEED, s.nodes, s.pods, null, dispatchWindow);
+		PeopleMover pm = new PeopleMover();
+		pm.setDecisionThreads(threads);
+		pm.setRegions(regions);
+		Simulator simulator = pm.setUp(config, ViewMode.HEADLESS, null);
+		int ticks = (int) (measured / simulator.getTimeStep());
+		long[] latencies = new long[ticks];
+		double wallSeconds;
+		long allocated;
+		int onTimeBefore;
+		int lateBefore;
+		try {
+			while(simulator.getCurrentTime() < WARMUP_TIME)
+				simulator.tick();
+			onTimeBefore = pm.getContext().getUsersOnTime();
+			lateBefore = pm.getContext().getUsersLate();
+
+			HashMap<Long, Long> allocatedBefore = getAllocatedBytes();
+			long start = System.nanoTime();
+			for(int i = 0; i < ticks; i++) {
+				long begin = System.nanoTime();
+				simulator.tick();
+				latencies[i] = System.nanoTime() - begin;
+			}
+			wallSeconds = (System.nanoTime() - start) / 1e9;
+			allocated = getAllocatedSince(allocatedBefore);
+		} finally {
+			// The worker threads of this scenario must not run on into the next one.
+			pm.stopWorkers();
+		}
+		Arrays.sort(latencies);
+		int onTime = pm.getContext().getUsersOnTime() - onTimeBefore;
+		int late = pm.getContext().getUsersLate() - lateBefore;
+
+		System.err.println("Finished " + (s.nodes == 0 ? BenchmarkFixtures.CITY_GRAPH : s.nodes) + " nodes, " + s.pods + " pods in " + String.format(Locale.ROOT, "%.1f", wallSeconds) + " s.");
+		return String.format(Locale.ROOT,
+				"{\"nodes\": %d, \"pods\": %d, \"maxUsers\": %d, \"spawnRate\": %s, \"ticks\": %d, "
+				+ "\"simulatedSecondsPerSecond\": %.2f, "
+				+ "\"tickMicros\": {\"p50\": %.1f, \"p90\": %.1f, \"p99\": %.1f, \"p999\": %.1f, \"max\": %.1f}, "
+				+ "\"allocatedBytesPerTick\": %d, \"allocatedMegabytesPerSecond\": %.1f, "
+				+ "\"usersOnTime\": %d, \"usersLate\": %d}",
+				s.nodes == 0 ? BenchmarkFixtures.CITY_GRAPH : s.nodes, s.pods, s.maxUsers, s.spawnRate, ticks,
+				measured / 1000d / wallSeconds,
+				percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99), percentile(latencies, 0.999), latencies[ticks - 1] / 1000d,
+				allocated < 0 ? -1 : allocated / ticks, allocated < 0 ? -1 : allocated / 1e6 / wallSeconds,
+				onTime, late);
+	}
+
+	/**
+	 * @param sorted - Sorted latencies in nanoseconds
+	 * @param p - The percentile, between 0 and 1
+	 * @return double - The latency at that percentile in microseconds
+	 */
+	private static double percentile(long[] sorted, double p) {
+		int i = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1000d;
+	}
+
+	/**
+	 * @return HashMap<Long, Long> - The number of bytes allocated so far by each live thread, by thread id, or null if the JVM can't tell.
+	 */
+	private static HashMap<Long, Long> getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+		long[] ids = bean.getAllThreadIds();
+		long[] bytes = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(ids);
+		HashMap<Long, Long> allocated = new HashMap<>();
+		for(int i = 0; i < ids.length; i++)
+			if(bytes[i] >= 0)
+				allocated.put(ids[i], bytes[i]);
+		return allocated;
+	}
+
+	/**
+	 * Sum the bytes allocated by all threads since an earlier count. Threads that were started since count from zero,
+	 * threads that have ended since aren't counted.
+	 *
+	 * @param before - The earlier count, see getAllocatedBytes()
+	 * @return long - The number of bytes, or -1 if the JVM can't tell.
+	 */
+	private static long getAllocatedSince(HashMap<Long, Long> before) {
+		HashMap<Long, Long> after = getAllocatedBytes();
+		if(before == null || after == null)
+			return -1;
+		long allocated = 0;
+		for(Map.Entry<Long, Long> e : after.entrySet()) {
+			Long earlier = before.get(e.getKey());
+			allocated += e.getValue() - (earlier == null ? 0 : earlier);
+		}
+		return allocated;
+	}
+
+	/**
+	 * The size of a simulated network and its load.
+	 */
+	private static class Scenario {
+		final int nodes;
+		final int pods;
+		final int maxUsers;
+		final double spawnRate;
+
+		Scenario(int nodes, int pods, int maxUsers, double spawnRate) {
+			this.nodes = nodes;
+			this.pods = pods;
+			this.maxUsers = maxUsers;
+			this.spawnRate = spawnRate;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package rinsim;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rinde.rinsim.core.Simulator;
+
+/**
+ * A full tick of a headless simulation of the city graph: the tick listener of PeopleMover and Pod.tickImpl of every pod.
+ * The simulation first runs for an hour of simulated time, so that users, roadsigns and reservations are in the steady state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TickBenchmark {
+
+	// The number of ticks that are simulated before measuring.
+	private static final int STEADY_STATE_TICKS = 3600;
+
+	// Whether the sophisticated task planning algorithm is used.
+	@Param({"false", "true"})
+	public boolean advancedPlanning;
+
+	private Simulator simulator;
+
+	@Setup
+	public void setUp() throws IOException {
+		simulator = new PeopleMover().setUp(TestFixtures.createConfiguration(advancedPlanning), ViewMode.HEADLESS, null);
+		for(int i = 0; i < STEADY_STATE_TICKS; i++)
+			simulator.tick();
+	}
+
+	@Benchmark
+	public long tick() {
+		simulator.tick();
+		return simulator.getCurrentTime();
+	}
+}
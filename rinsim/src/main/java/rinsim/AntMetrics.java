@@ -0,0 +1,255 @@
+package rinsim;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and timers around the ants of all simulations in this JVM: how many ants of each kind run, how long they take
+ * and how many ants were waiting in the AntQueue when they ran.
+ *
+ * The values are striped: each thread adds to the stripe of its id, so that runs of a sweep on different threads rarely
+ * contend for the same counter. Every call is counted, but only one call in SAMPLE_INTERVAL per stripe is timed.
+ *
+ * The metrics are off unless the JVM is started with -Drinsim.metrics=true, or they are switched on through JMX.
+ * Read them with snapshot(), or through JMX after registerMBean().
+ */
+public class AntMetrics implements AntMetricsMXBean {
+
+	/**
+	 * The places in the code that are measured.
+	 */
+	public enum Probe {
+		// Station.receiveExplorationAnt
+		EXPLORATION,
+		// Station.makeRoadsign
+		ROADSIGN,
+		// Station.makeReservation
+		RESERVATION,
+		// Station.forwardConfirmation
+		CONFIRMATION,
+		// The decision of an idle pod in Pod.tickImpl. Its depth is the number of intentions the pod chose from.
+		DECISION
+	}
+
+	// One call in this many is timed. Must be a power of two.
+	public static final int SAMPLE_INTERVAL = 64;
+	// The number of stripes. Must be a power of two.
+	private static final int STRIPES = 16;
+	// The values that are kept per probe per stripe.
+	private static final int COUNT = 0;
+	private static final int TIMED = 1;
+	private static final int NANOS = 2;
+	private static final int DEPTH = 3;
+	private static final int MAX_DEPTH = 4;
+	private static final int FIELDS = 5;
+	// The space between two stripes, in longs, so that they don't share a cache line.
+	private static final int STRIDE = Probe.values().length * FIELDS + 8;
+	// The start time returned for calls that aren't timed.
+	private static final long UNTIMED = Long.MIN_VALUE;
+
+	private static final AntMetrics INSTANCE = new AntMetrics();
+	private static volatile boolean enabled = Boolean.getBoolean("rinsim.metrics");
+
+	private final AtomicLongArray values = new AtomicLongArray(STRIPES * STRIDE);
+
+	private AntMetrics() {}
+
+	/**
+	 * Count a call and start timing it, if it's sampled.
+	 *
+	 * @param probe - What is called
+	 * @return long - The start time, to pass to stop()
+	 */
+	public static long start(Probe probe) {
+		if(!enabled)
+			return UNTIMED;
+		long count = INSTANCE.values.getAndIncrement(getIndex(probe) + COUNT);
+		return (count & (SAMPLE_INTERVAL - 1)) == 0 ? System.nanoTime() : UNTIMED;
+	}
+
+	/**
+	 * Finish a call that was counted with start().
+	 *
+	 * @param probe - What was called
+	 * @param start - The start time returned by start()
+	 * @param depth - The number of ants that were waiting when the call started
+	 */
+	public static void stop(Probe probe, long start, int depth) {
+		if(!enabled)
+			return;
+		AtomicLongArray values = INSTANCE.values;
+		int index = getIndex(probe);
+		values.addAndGet(index + DEPTH, depth);
+		long max = values.get(index + MAX_DEPTH);
+		while(depth > max && !values.compareAndSet(index + MAX_DEPTH, max, depth))
+			max = values.get(index + MAX_DEPTH);
+		if(start != UNTIMED) {
+			values.incrementAndGet(index + TIMED);
+			values.addAndGet(index + NANOS, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Sum the stripes of a probe.
+	 *
+	 * @param probe - The probe
+	 * @return Snapshot
+	 */
+	public static Snapshot snapshot(Probe probe) {
+		long count = 0;
+		long timed = 0;
+		long nanos = 0;
+		long depth = 0;
+		long maxDepth = 0;
+		for(int s = 0; s < STRIPES; s++) {
+			int index = s * STRIDE + probe.ordinal() * FIELDS;
+			count += INSTANCE.values.get(index + COUNT);
+			timed += INSTANCE.values.get(index + TIMED);
+			nanos += INSTANCE.values.get(index + NANOS);
+			depth += INSTANCE.values.get(index + DEPTH);
+			maxDepth = Math.max(maxDepth, INSTANCE.values.get(index + MAX_DEPTH));
+		}
+		return new Snapshot(probe.name(), count, timed == 0 ? Double.NaN : (double) nanos / timed,
+				count == 0 ? Double.NaN : (double) depth / count, maxDepth);
+	}
+
+	/**
+	 * Register the metrics with the platform MBean server as "rinsim:type=AntMetrics", if they aren't registered yet.
+	 */
+	public static void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("rinsim:type=AntMetrics");
+			if(!server.isRegistered(name))
+				server.registerMBean(INSTANCE, name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to register the ant metrics.", e);
+		}
+	}
+
+	/**
+	 * Get the index of the values of a probe in the stripe of the current thread.
+	 */
+	private static int getIndex(Probe probe) {
+		int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+		return stripe * STRIDE + probe.ordinal() * FIELDS;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		AntMetrics.enabled = enabled;
+	}
+
+	@Override
+	public int getSampleInterval() {
+		return SAMPLE_INTERVAL;
+	}
+
+	@Override
+	public long getExplorationAnts() {
+		return snapshot(Probe.EXPLORATION).getCount();
+	}
+
+	@Override
+	public long getRoadSignAnts() {
+		return snapshot(Probe.ROADSIGN).getCount();
+	}
+
+	@Override
+	public long getReservationAnts() {
+		return snapshot(Probe.RESERVATION).getCount();
+	}
+
+	@Override
+	public long getConfirmations() {
+		return snapshot(Probe.CONFIRMATION).getCount();
+	}
+
+	@Override
+	public long getDecisions() {
+		return snapshot(Probe.DECISION).getCount();
+	}
+
+	@Override
+	public Snapshot[] getSnapshots() {
+		Probe[] probes = Probe.values();
+		Snapshot[] snapshots = new Snapshot[probes.length];
+		for(int i = 0; i < probes.length; i++)
+			snapshots[i] = snapshot(probes[i]);
+		return snapshots;
+	}
+
+	@Override
+	public void reset() {
+		for(int i = 0; i < values.length(); i++)
+			values.set(i, 0);
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public static AntMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * The metrics of a probe at one point in time.
+	 */
+	public static class Snapshot {
+
+		private final String probe;
+		private final long count;
+		// The mean time of the timed calls, in nanoseconds.
+		private final double meanTime;
+		private final double meanDepth;
+		private final long maxDepth;
+
+		public Snapshot(String probe, long count, double meanTime, double meanDepth, long maxDepth) {
+			this.probe = probe;
+			this.count = count;
+			this.meanTime = meanTime;
+			this.meanDepth = meanDepth;
+			this.maxDepth = maxDepth;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d calls, mean time %.1f us, mean depth %.1f, max depth %d",
+					probe, count, meanTime / 1000, meanDepth, maxDepth);
+		}
+
+		/**
+		 * GETTERS.
+		 */
+
+		public String getProbe() {
+			return probe;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public double getMeanTime() {
+			return meanTime;
+		}
+
+		public double getMeanDepth() {
+			return meanDepth;
+		}
+
+		public long getMaxDepth() {
+			return maxDepth;
+		}
+	}
+}
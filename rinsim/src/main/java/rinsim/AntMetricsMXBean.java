@@ -0,0 +1,30 @@
+package rinsim;
+
+/**
+ * The management interface of AntMetrics, registered as "rinsim:type=AntMetrics".
+ */
+public interface AntMetricsMXBean {
+
+	public boolean isEnabled();
+
+	public void setEnabled(boolean enabled);
+
+	public int getSampleInterval();
+
+	public long getExplorationAnts();
+
+	public long getRoadSignAnts();
+
+	public long getReservationAnts();
+
+	public long getConfirmations();
+
+	public long getDecisions();
+
+	public AntMetrics.Snapshot[] getSnapshots();
+
+	/**
+	 * Set all counters and timers back to zero.
+	 */
+	public void reset();
+}
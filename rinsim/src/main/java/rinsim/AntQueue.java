@@ -0,0 +1,127 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The road sign, reservation and confirmation ants of a simulation that are on their way to a station.
+ * Stations don't call each other to pass an ant on: they add it to this queue, and the first station that received an ant
+ * processes the queue until it's empty. The stack of the simulation thread therefore doesn't grow with the length of
+ * a reservation sequence or the number of hops of a road sign ant.
+ *
+ * The queue is a stack: an ant that is sent to several neighbours is sent to them in reverse order, so that each neighbour
+ * and everything it forwards is processed before the next neighbour. That is the order in which the ants used to recurse.
+ */
+public class AntQueue {
+
+	private static final byte ROADSIGN = 0;
+	private static final byte RESERVATION = 1;
+	private static final byte CONFIRMATION = 2;
+
+	// The ants, as parallel arrays: what kind of ant, the station it's sent to, what it carries and the time it was sent.
+	private byte[] kinds = new byte[64];
+	private Station[] stations = new Station[64];
+	private Object[] payloads = new Object[64];
+	private long[] times = new long[64];
+	private int size = 0;
+	// Whether the queue is being processed, further down the stack.
+	private boolean draining = false;
+
+	public AntQueue() {}
+
+	/**
+	 * Send a road sign ant to a station.
+	 *
+	 * @param receiver - The station
+	 * @param previous - The RoadSign issued by the previous station
+	 * @param time - The current time
+	 */
+	public void sendRoadSign(Station receiver, RoadSign previous, long time) {
+		push(ROADSIGN, receiver, previous, time);
+	}
+
+	/**
+	 * Send a reservation ant to a station.
+	 *
+	 * @param receiver - The station
+	 * @param res - The reservations that are left to make
+	 */
+	public void sendReservation(Station receiver, ArrayList<Reservation> res) {
+		push(RESERVATION, receiver, res, 0);
+	}
+
+	/**
+	 * Send a confirmation to a station.
+	 *
+	 * @param receiver - The station
+	 * @param res - The reservations that have been confirmed so far
+	 */
+	public void sendConfirmation(Station receiver, ArrayList<Reservation> res) {
+		push(CONFIRMATION, receiver, res, 0);
+	}
+
+	/**
+	 * Process ants until none are left, unless the queue is already being processed.
+	 * Every ant is counted and timed (see AntMetrics), with the number of ants still waiting as its depth.
+	 */
+	@SuppressWarnings("unchecked")
+	public void drain() {
+		if(draining)
+			return;
+		draining = true;
+		try {
+			while(size > 0) {
+				size--;
+				byte kind = kinds[size];
+				Station station = stations[size];
+				Object payload = payloads[size];
+				long time = times[size];
+				stations[size] = null;
+				payloads[size] = null;
+				int depth = size;
+
+				if(kind == ROADSIGN) {
+					long start = AntMetrics.start(AntMetrics.Probe.ROADSIGN);
+					station.makeRoadsign((RoadSign) payload, time);
+					AntMetrics.stop(AntMetrics.Probe.ROADSIGN, start, depth);
+				} else if(kind == RESERVATION) {
+					long start = AntMetrics.start(AntMetrics.Probe.RESERVATION);
+					station.makeReservation((ArrayList<Reservation>) payload);
+					AntMetrics.stop(AntMetrics.Probe.RESERVATION, start, depth);
+				} else {
+					long start = AntMetrics.start(AntMetrics.Probe.CONFIRMATION);
+					station.forwardConfirmation((ArrayList<Reservation>) payload);
+					AntMetrics.stop(AntMetrics.Probe.CONFIRMATION, start, depth);
+				}
+			}
+		} finally {
+			// If an ant failed, the ants after it are lost with it.
+			Arrays.fill(stations, 0, size, null);
+			Arrays.fill(payloads, 0, size, null);
+			size = 0;
+			draining = false;
+		}
+	}
+
+	private void push(byte kind, Station receiver, Object payload, long time) {
+		if(size == kinds.length) {
+			kinds = Arrays.copyOf(kinds, size * 2);
+			stations = Arrays.copyOf(stations, size * 2);
+			payloads = Arrays.copyOf(payloads, size * 2);
+			times = Arrays.copyOf(times, size * 2);
+		}
+		kinds[size] = kind;
+		stations[size] = receiver;
+		payloads[size] = payload;
+		times[size] = time;
+		size++;
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public int size() {
+		return size;
+	}
+}
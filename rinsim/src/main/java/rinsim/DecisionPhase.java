@@ -0,0 +1,95 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.rinde.rinsim.core.model.time.TickListener;
+import com.github.rinde.rinsim.core.model.time.TimeLapse;
+
+/**
+ * The first phase of a two-phase tick: at the start of every tick, the pods that are going to decide where to go
+ * explore and choose their routes in parallel, on a pool of worker threads. Nothing is reserved while they do, so all
+ * pods see the reservations as they were at the end of the previous tick.
+ *
+ * The second phase is the tick of each pod, one after the other as before: the pod reserves the route it has chosen,
+ * unless a pod that ticked before it has reserved part of the route in the meantime. Then the pod decides again (see Pod.tickImpl).
+ * The routes that are chosen don't depend on the number of threads, so runs stay reproducible.
+ *
+ * This listener has to be added to the simulator before the pods are registered, so that it ticks before them.
+ */
+public class DecisionPhase implements TickListener {
+
+	private final List<Pod> pods;
+	private final int threads;
+	private final ExecutorService pool;
+
+	/**
+	 * @param pods - The pods of the simulation. The list may still be filled after this phase has been created.
+	 * @param threads - The number of worker threads
+	 * @param name - The name of the simulation, used for the names of the threads
+	 */
+	public DecisionPhase(List<Pod> pods, int threads, final String name) {
+		this.pods = pods;
+		this.threads = threads;
+		this.pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int count = 0;
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "decisions-" + name + "-" + count++);
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	@Override
+	public void tick(final TimeLapse timeLapse) {
+		final ArrayList<Pod> due = new ArrayList<>();
+		for(Pod p : pods)
+			if(p.isDecisionDue(timeLapse.getTime()))
+				due.add(p);
+		// A single decision isn't worth handing over to another thread: the pod makes it during its own tick.
+		if(due.size() < 2)
+			return;
+
+		// Every worker takes the next pod until none are left.
+		final AtomicInteger next = new AtomicInteger();
+		ArrayList<Callable<Void>> workers = new ArrayList<>();
+		for(int i = 0; i < Math.min(threads, due.size()); i++) {
+			workers.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for(int j = next.getAndIncrement(); j < due.size(); j = next.getAndIncrement())
+						due.get(j).prepareDecision(timeLapse);
+					return null;
+				}
+			});
+		}
+		try {
+			for(Future<Void> f : pool.invokeAll(workers))
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A pod failed to prepare its decision.", e.getCause());
+		}
+	}
+
+	@Override
+	public void afterTick(TimeLapse timeLapse) {}
+
+	/**
+	 * Stop the worker threads.
+	 */
+	public void close() {
+		pool.shutdown();
+	}
+}
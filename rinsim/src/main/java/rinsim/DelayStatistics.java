@@ -0,0 +1,121 @@
+package rinsim;
+
+/**
+ * Streaming statistics of delays, in constant memory: the count, mean and variance (Welford's method) and a histogram
+ * from which percentiles are read.
+ *
+ * The histogram is log-linear, like an HDR histogram: values below 32 ms each have their own bucket, and every power of two
+ * above that is split into 32 buckets of equal width. A percentile is therefore accurate to about 3%.
+ * Recording a value doesn't allocate.
+ */
+public class DelayStatistics {
+
+	// The number of bits of a value that are kept exactly: each power of two is split into 2^SUB_BUCKET_BITS buckets.
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// Enough buckets for every non-negative long.
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] buckets = new long[BUCKETS];
+	private long count = 0;
+	private double mean = 0;
+	// The sum of the squared differences from the mean.
+	private double squares = 0;
+	private long max = 0;
+
+	public DelayStatistics() {}
+
+	/**
+	 * Record a delay.
+	 *
+	 * @param delay - The delay in milliseconds. Negative delays are recorded as 0.
+	 */
+	public void record(long delay) {
+		long value = Math.max(0, delay);
+		count++;
+		double difference = value - mean;
+		mean += difference / count;
+		squares += difference * (value - mean);
+		max = Math.max(max, value);
+		buckets[getBucket(value)]++;
+	}
+
+	/**
+	 * Get the delay below which the given fraction of the delays lie.
+	 *
+	 * @param p - The fraction, between 0 and 1 (0.95 for the 95th percentile)
+	 * @return long - The delay in milliseconds, or 0 if no delays were recorded
+	 */
+	public long getPercentile(double p) {
+		if(count == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(p * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += buckets[i];
+			if(seen >= rank)
+				return Math.min(getValue(i), max);
+		}
+		return max;
+	}
+
+	/**
+	 * @return double - The mean delay in milliseconds, or NaN if no delays were recorded
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : mean;
+	}
+
+	/**
+	 * @return double - The variance of the delays, or NaN if no delays were recorded
+	 */
+	public double getVariance() {
+		return count == 0 ? Double.NaN : squares / count;
+	}
+
+	/**
+	 * @return double - The standard deviation of the delays, or NaN if no delays were recorded
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Get the bucket of a value.
+	 *
+	 * @param value - A non-negative value
+	 * @return int
+	 */
+	private static int getBucket(long value) {
+		if(value < SUB_BUCKETS)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * Get the value in the middle of a bucket.
+	 *
+	 * @param bucket - The bucket
+	 * @return long
+	 */
+	private static long getValue(int bucket) {
+		if(bucket < SUB_BUCKETS)
+			return bucket;
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + ((1L << shift) - 1) / 2;
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMax() {
+		return max;
+	}
+}
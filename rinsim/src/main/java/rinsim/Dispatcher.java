@@ -0,0 +1,176 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A central alternative to the roadsigns: keeps a queue of all waiting users and, once per dispatch window,
+ * assigns them to the pods that have nothing to do. The assignment minimizes the total number of hops the pods have
+ * to drive to their users (the Hungarian method on a matrix of hop distances, see DistanceTable).
+ * A pod drives to its user, and from there to the destination of the user, as it would for a passenger it found itself.
+ */
+public class Dispatcher {
+
+	// The maximal number of waiting users that are considered per dispatch, the ones that wait longest first.
+	// This bounds the size of the assignment problem.
+	public static int MAX_BATCH = 200;
+
+	// The users that are waiting, with the station they wait at, in the order they arrived.
+	private final LinkedHashMap<User, Station> waiting = new LinkedHashMap<>();
+	private final DistanceTable distances;
+
+	/**
+	 * @param distances - The distances between the stations
+	 */
+	public Dispatcher(DistanceTable distances) {
+		this.distances = distances;
+	}
+
+	/**
+	 * Add a user that has started waiting to the queue.
+	 *
+	 * @param u - The user
+	 * @param station - The station the user waits at
+	 */
+	public void submit(User u, Station station) {
+		waiting.put(u, station);
+	}
+
+	/**
+	 * Assign the waiting users that aren't assigned yet to the pods that are available.
+	 *
+	 * @param pods - All pods
+	 * @param time - The current time
+	 */
+	public void dispatch(List<Pod> pods, long time) {
+		// Forget the users that have been picked up, and collect the ones that no pod is on its way to.
+		HashSet<User> assigned = new HashSet<>();
+		ArrayList<Pod> available = new ArrayList<>();
+		for(Pod p : pods) {
+			if(p.getAssignment() != null)
+				assigned.add(p.getAssignment());
+			else if(p.isAvailable())
+				available.add(p);
+		}
+		ArrayList<User> users = new ArrayList<>();
+		ArrayList<Station> stations = new ArrayList<>();
+		for(Iterator<Map.Entry<User, Station>> it = waiting.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<User, Station> e = it.next();
+			if(!e.getValue().getPassengers().contains(e.getKey()))
+				it.remove();
+			else if(!assigned.contains(e.getKey()) && users.size() < MAX_BATCH) {
+				users.add(e.getKey());
+				stations.add(e.getValue());
+			}
+		}
+		if(available.isEmpty() || users.isEmpty())
+			return;
+
+		// The hops from each pod to each user. The smaller side of the matrix goes first.
+		// A user further away than a pod can explore is unreachable for that pod: it would never find a route.
+		boolean podRows = available.size() <= users.size();
+		int rows = podRows ? available.size() : users.size();
+		int columns = podRows ? users.size() : available.size();
+		int[][] cost = new int[rows][columns];
+		for(int i = 0; i < available.size(); i++) {
+			Station from = available.get(i).getCurrentStation();
+			for(int j = 0; j < users.size(); j++) {
+				int hops = distances.getHops(from, stations.get(j));
+				if(hops > Pod.START_HOP_COUNT)
+					hops = DistanceTable.UNREACHABLE;
+				if(podRows)
+					cost[i][j] = hops;
+				else
+					cost[j][i] = hops;
+			}
+		}
+
+		int[] match = assign(cost);
+		for(int row = 0; row < rows; row++) {
+			int i = podRows ? row : match[row];
+			int j = podRows ? match[row] : row;
+			if(cost[row][match[row]] < DistanceTable.UNREACHABLE)
+				available.get(i).assign(users.get(j), stations.get(j), time);
+		}
+	}
+
+	/**
+	 * Find the assignment of every row to a distinct column with the smallest total cost (the Hungarian method with potentials).
+	 *
+	 * @param cost - The cost of each row and column. There must be no more rows than columns.
+	 * @return int[] - The column of each row
+	 */
+	static int[] assign(int[][] cost) {
+		int n = cost.length;
+		int m = cost[0].length;
+		// Potentials of the rows and columns, the row matched to each column and the previous column on the augmenting path,
+		// all 1-based with column 0 as the row that is being added.
+		long[] u = new long[n + 1];
+		long[] v = new long[m + 1];
+		int[] rowOf = new int[m + 1];
+		int[] way = new int[m + 1];
+		long[] min = new long[m + 1];
+		boolean[] used = new boolean[m + 1];
+
+		for(int i = 1; i <= n; i++) {
+			rowOf[0] = i;
+			int column = 0;
+			Arrays.fill(min, Long.MAX_VALUE);
+			Arrays.fill(used, false);
+			do {
+				used[column] = true;
+				int row = rowOf[column];
+				long delta = Long.MAX_VALUE;
+				int next = 0;
+				for(int j = 1; j <= m; j++) {
+					if(used[j])
+						continue;
+					long reduced = cost[row - 1][j - 1] - u[row] - v[j];
+					if(reduced < min[j]) {
+						min[j] = reduced;
+						way[j] = column;
+					}
+					if(min[j] < delta) {
+						delta = min[j];
+						next = j;
+					}
+				}
+				for(int j = 0; j <= m; j++) {
+					if(used[j]) {
+						u[rowOf[j]] += delta;
+						v[j] -= delta;
+					} else {
+						min[j] -= delta;
+					}
+				}
+				column = next;
+			} while(rowOf[column] != 0);
+
+			// Flip the augmenting path.
+			do {
+				int previous = way[column];
+				rowOf[column] = rowOf[previous];
+				column = previous;
+			} while(column != 0);
+		}
+
+		int[] match = new int[n];
+		for(int j = 1; j <= m; j++)
+			if(rowOf[j] != 0)
+				match[rowOf[j] - 1] = j - 1;
+		return match;
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public int getWaiting() {
+		return waiting.size();
+	}
+}
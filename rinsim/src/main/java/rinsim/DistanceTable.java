@@ -0,0 +1,172 @@
+package rinsim;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The number of hops between each pair of stations, over the static graph, ignoring reservations.
+ * The distances towards a station are stored as a row of bytes indexed by station id (see Topology).
+ * For graphs up to PRECOMPUTE_LIMIT stations all rows are computed at setup. For bigger graphs a row is computed by a
+ * breadth-first search when it's first needed, and a bounded number of rows is kept.
+ * Distances of more than MAX_HOPS are stored as MAX_HOPS, so beyond that distance no next hop is known.
+ *
+ * Since the roads go both ways, a row towards a station also holds the distances from that station.
+ */
+public class DistanceTable {
+
+	// The number of stations up to which the rows of all stations are computed at setup by default (16 MB at this size).
+	public static final int PRECOMPUTE_LIMIT = 4096;
+	// The number of rows that are kept for bigger graphs.
+	private static final int CACHED_ROWS = 256;
+	// Distances are capped at this value, so that they fit in a byte. A capped distance is a lower bound.
+	public static final int MAX_HOPS = 126;
+	// The distance to a station that can't be reached.
+	public static final int UNREACHABLE = 127;
+
+	private final Topology topology;
+	// All rows, if they are computed at setup.
+	private byte[][] rows = null;
+	// The most recently used rows otherwise.
+	private LinkedHashMap<Station, byte[]> cache = null;
+	// The distance from each station to the nearest station with a loading dock.
+	private final byte[] toLoadingDock;
+
+	/**
+	 * @param topology - The connections between the stations
+	 */
+	public DistanceTable(Topology topology) {
+		this(topology, PRECOMPUTE_LIMIT);
+	}
+
+	/**
+	 * @param topology - The connections between the stations
+	 * @param precomputeLimit - The number of stations up to which the rows of all stations are computed at setup
+	 */
+	public DistanceTable(Topology topology, int precomputeLimit) {
+		this.topology = topology;
+		int n = topology.getStationCount();
+
+		if(n <= precomputeLimit) {
+			rows = new byte[n][];
+			for(int i = 0; i < n; i++)
+				rows[i] = search(new int[] {i});
+		} else {
+			cache = new LinkedHashMap<Station, byte[]>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Station, byte[]> eldest) {
+					return size() > CACHED_ROWS;
+				}
+			};
+		}
+
+		// The stations that have loading docks among their neighbours.
+		int[] docked = new int[n];
+		int count = 0;
+		for(int i = 0; i < n; i++)
+			if(topology.getStationLimit(i) < topology.getEnd(i))
+				docked[count++] = i;
+		toLoadingDock = search(Arrays.copyOf(docked, count));
+	}
+
+	/**
+	 * Get the number of hops between two stations.
+	 *
+	 * @param from - The first station
+	 * @param to - The second station
+	 * @return int - The number of hops, or UNREACHABLE
+	 */
+	public int getHops(Station from, Station to) {
+		return getRow(to)[from.getId()];
+	}
+
+	/**
+	 * Get the number of hops from a station to the nearest station with a loading dock.
+	 *
+	 * @param from - The station
+	 * @return int - The number of hops, or UNREACHABLE
+	 */
+	public int getHopsToLoadingDock(Station from) {
+		return toLoadingDock[from.getId()];
+	}
+
+	/**
+	 * Get a neighbour of a station that lies on a shortest path towards another station.
+	 * If the other station lies more than MAX_HOPS away, the neighbours can't be told apart and none is returned.
+	 *
+	 * @param from - The station
+	 * @param to - The station to move towards
+	 * @return Station, or null if the stations are the same, the other station can't be reached or lies more than MAX_HOPS away.
+	 */
+	public Station getNextHop(Station from, Station to) {
+		byte[] row = getRow(to);
+		int hops = row[from.getId()];
+		if(hops == 0 || hops == UNREACHABLE)
+			return null;
+		int[] targets = topology.getTargets();
+		int best = -1;
+		for(int i = topology.getFirst(from.getId()); i < topology.getStationLimit(from.getId()); i++) {
+			if(best == -1 || row[targets[i]] < row[best])
+				best = targets[i];
+		}
+		// Only a neighbour whose distance isn't capped is known to be closer.
+		return row[best] == hops - 1 ? topology.getStation(best) : null;
+	}
+
+	/**
+	 * Get the distances towards a station.
+	 *
+	 * @param to - The station
+	 * @return byte[] - The distances, indexed by station id
+	 */
+	private byte[] getRow(Station to) {
+		if(rows != null)
+			return rows[to.getId()];
+		// The cache is shared by the pods that decide in parallel (see DecisionPhase).
+		byte[] row;
+		synchronized(cache) {
+			row = cache.get(to);
+		}
+		if(row == null) {
+			row = search(new int[] {to.getId()});
+			synchronized(cache) {
+				cache.put(to, row);
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * Breadth-first search from a set of stations.
+	 *
+	 * @param sources - The ids of the stations the search starts from
+	 * @return byte[] - The distance of each station to the nearest source, indexed by station id
+	 */
+	private byte[] search(int[] sources) {
+		int n = topology.getStationCount();
+		int[] targets = topology.getTargets();
+		byte[] row = new byte[n];
+		Arrays.fill(row, (byte) UNREACHABLE);
+		int[] queue = new int[n];
+		int head = 0;
+		int tail = 0;
+		for(int s : sources) {
+			row[s] = 0;
+			queue[tail++] = s;
+		}
+
+		while(head < tail) {
+			int current = queue[head++];
+			int next = Math.min(row[current] + 1, MAX_HOPS);
+			for(int i = topology.getFirst(current); i < topology.getStationLimit(current); i++) {
+				if(row[targets[i]] == UNREACHABLE) {
+					row[targets[i]] = (byte) next;
+					queue[tail++] = targets[i];
+				}
+			}
+		}
+		return row;
+	}
+}
@@ -1,9 +1,8 @@
 package rinsim;
 
-import java.awt.AWTException;
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
 
 public class Experiment {
 	
@@ -14,34 +13,42 @@ public class Experiment {
 	private static final int MAX_USERS = 100;
 	// The delivery deadline that we should try to meet for each user.
 	private static final int DELIVERY_DEADLINE = 7200000; // 2 hours
-	// The path where results should be written to.
-	private static final String path = "results_basic_planning.txt";
+	// The path where results should be written to, as CSV.
+	private static final String path = ADVANCED_PLANNING ? "results_advanced_planning.csv" : "results_basic_planning.csv";
 	// The lowest spawn rate for the experiment
 	private static final double lowRate = 0.001;
 	// The highest spawn rate for the experiment
 	private static final double highRate = 0.05;
 	// Step size for the experiment
 	private static final double stepSize = 0.005;
+	// The seed of the first run. Each next run uses the next seed.
+	private static final long SEED = 123;
 	
-	public static void main(String[] args) throws URISyntaxException, IOException, AWTException {
+	public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
 		
-		// Set params
-		PeopleMover.setADVANCED_PLANNING(ADVANCED_PLANNING);
-		PeopleMover.setMAX_USERS(MAX_USERS);
-		PeopleMover.setDELIVERY_DEADLINE(DELIVERY_DEADLINE);
-		PeopleMover.setEXPERIMENTING(true);
-		
-		// Create object and run
+		// Create a configuration per spawn rate
+		ArrayList<RunConfiguration> configs = new ArrayList<>();
 		for(double i = lowRate; i <= highRate + 0.001; i += stepSize) {
-			PeopleMover.setUsersOnTime(0);
-			PeopleMover.setDelays(new ArrayList<Double>());
+			double rate = i;
 			if(i != lowRate)
-				PeopleMover.setSPAWN_RATE(i - 0.001);
-			else
-				PeopleMover.setSPAWN_RATE(i);
+				rate = i - 0.001;
+			configs.add(new RunConfiguration(rate, ADVANCED_PLANNING, MAX_USERS, DELIVERY_DEADLINE, DURATION, SEED + configs.size()));
+		}
+		
+		// Count the ants of all runs, if -Drinsim.metrics=true is set or they are switched on through JMX
+		AntMetrics.registerMBean();
 		
-			PeopleMover pm = new PeopleMover();
-			pm.run(DURATION, path);
+		// Run them on all available cores, with one results file for the whole sweep
+		SweepRunner runner = new SweepRunner(Runtime.getRuntime().availableProcessors());
+		ResultsWriter results = new ResultsWriter(path);
+		try {
+			for(RunResult result : runner.run(configs, results))
+				System.out.println(result);
+		} finally {
+			results.close();
 		}
+		if(AntMetrics.getInstance().isEnabled())
+			for(AntMetrics.Snapshot snapshot : AntMetrics.getInstance().getSnapshots())
+				System.out.println(snapshot);
 	}
 }
@@ -0,0 +1,309 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded best-first search over the station graph, used in place of flooding exploration ants.
+ * Partial paths are expanded in order of their earliest reservation time. A partial path is dropped when a path
+ * that arrived at the same station at least as early, with at least as many hops left, has already been expanded.
+ * Because reservation times never decrease along a path, the dropped path cannot lead to a better intention, as long as
+ * every path that extends the earlier one can leave its stations in time. An earlier arrival can fail where a later one
+ * wouldn't, though: it may have to leave a station before the reservation of another pod starts there, which the later
+ * arrival can wait for. When a path fails that way, it and the paths it extends no longer drop other paths, and the
+ * paths they dropped are queued again. A dropped path may also go to the stations the earlier path has passed, which the
+ * earlier path can't visit again. So it is only dropped as long as the arrivals of the earlier path at those stations
+ * drop later arrivals as well.
+ * Branches from which the destination lies further away than the hops that are left are not followed at all (see DistanceTable).
+ */
+public class ExplorationEngine {
+
+	// The maximal number of partial paths that are expanded during a single exploration.
+	public static int MAX_EXPANSIONS = 10000;
+	// Reservation times above this value indicate that a pod is waiting at an intermediate station.
+	private static final long UNREACHABLE_TIME = 99999999999999L;
+	// Reservation times above this value indicate that a pod is waiting at the destination.
+	private static final long UNREACHABLE_DESTINATION_TIME = 9999999999999999L;
+
+	// Orders partial paths by their last reservation time, and shorter paths (more hops left) first.
+	private static final Comparator<ExplorationPath> EARLIEST_FIRST = new Comparator<ExplorationPath>() {
+		@Override
+		public int compare(ExplorationPath p1, ExplorationPath p2) {
+			if(p1.getTime() != p2.getTime())
+				return p1.getTime() < p2.getTime() ? -1 : 1;
+			return p1.size() - p2.size();
+		}
+	};
+
+	private ExplorationEngine() {}
+
+	/**
+	 * Find the feasible intentions from a start station to a destination within the given number of hops.
+	 *
+	 * @param start - The station the exploration starts from (the one the pod is currently at)
+	 * @param dest - The destination Station. If this is null, any station with a loading dock is a destination.
+	 * @param hops - The maximal number of hops an intention may take.
+	 * @param pod - The pod that is exploring
+	 * @param currentTime - The current time
+	 * @return A list of intentions: paths of stations and earliest possible reservation start times for that station.
+	 */
+	public static ArrayList<ExplorationPath> explore(Station start, Station dest, int hops, Pod pod, long currentTime) {
+		ArrayList<ExplorationPath> intentions = new ArrayList<>();
+
+		// If the start station is a destination itself, the intention only contains this station.
+		if(isDestination(start, dest)) {
+			long resTime = start.checkPossibleEndReservationTime(currentTime + Station.RESERVATION_TIME).begin();
+			if(resTime <= UNREACHABLE_DESTINATION_TIME)
+				intentions.add(new ExplorationPath(start, resTime));
+			return intentions;
+		}
+
+		// If the destination is out of reach, there's no need to explore.
+		DistanceTable distances = start.getContext().getDistances();
+		Topology topology = start.getContext().getTopology();
+		int[] targets = topology.getTargets();
+		if(distances != null && getHops(distances, start, dest) > hops)
+			return intentions;
+
+		long startTime = currentTime + Station.RESERVATION_TIME;
+		if(start.getPod() != pod) {
+			startTime = start.checkPossibleReservationTime(startTime).begin();
+			if(startTime > UNREACHABLE_TIME)
+				return intentions;
+		}
+
+		// The expanded arrivals at each station that can still drop later arrivals.
+		HashMap<Station, ArrayList<ExplorationPath>> expanded = new HashMap<>();
+		// The arrivals that have been dropped in favour of each expanded arrival, and all arrivals that are dropped.
+		HashMap<ExplorationPath, ArrayList<ExplorationPath>> dropped = new HashMap<>();
+		HashSet<ExplorationPath> parked = new HashSet<>();
+		PriorityQueue<ExplorationPath> queue = new PriorityQueue<>(11, EARLIEST_FIRST);
+		queue.add(new ExplorationPath(start, startTime));
+		int expansions = 0;
+
+		while(!queue.isEmpty() && expansions < MAX_EXPANSIONS) {
+			ExplorationPath current = queue.poll();
+			int hopsLeft = hops - current.size() + 1;
+
+			// Drop the path if an earlier arrival with at least as many hops left has been expanded.
+			if(drop(current, expanded, dropped, parked))
+				continue;
+			ArrayList<ExplorationPath> arrivals = expanded.get(current.getStation());
+			if(arrivals == null) {
+				arrivals = new ArrayList<>();
+				expanded.put(current.getStation(), arrivals);
+			}
+			arrivals.add(current);
+
+			// If the path has arrived, it is an intention. It is not expanded any further.
+			if(isDestination(current.getStation(), dest)) {
+				intentions.add(current);
+				continue;
+			}
+			expansions++;
+
+			int id = current.getStation().getId();
+			for(int i = topology.getFirst(id); i < topology.getStationLimit(id); i++) {
+				Station s = topology.getStation(targets[i]);
+				int left = hopsLeft - 1;
+				boolean arrived = isDestination(s, dest);
+
+				// If the hops have run out before reaching the destination, or the path would loop: skip.
+				if(left < 0 || (left == 0 && !arrived))
+					continue;
+				if(!arrived && distances != null && getHops(distances, s, dest) > left)
+					continue;
+				if(current.contains(s))
+					continue;
+
+				long resTime;
+				if(arrived) {
+					// The destination is reserved until the pod leaves again, so it has to come after all other reservations.
+					resTime = s.checkPossibleEndReservationTime(current.getTime() + Station.RESERVATION_TIME).begin();
+					if(resTime > UNREACHABLE_DESTINATION_TIME)
+						continue;
+				} else if(s.getPod() == pod) {
+					resTime = currentTime + Station.RESERVATION_TIME;
+				} else {
+					// If the path reaches a station at which a pod is waiting: drop it.
+					// This is one of the methods that ensures that pods cannot be at the same station at once.
+					resTime = s.checkPossibleReservationTime(current.getTime() + Station.RESERVATION_TIME).begin();
+					if(resTime > UNREACHABLE_TIME)
+						continue;
+				}
+				
+				// The current station stays reserved until the next one can be entered, so that period has to be free.
+				// If it isn't, a later arrival at the current station may still get through.
+				if(current.getStation().getPod() != pod && !current.getStation().isFree(current.getTime(), resTime)) {
+					release(current, expanded, dropped, parked, queue);
+					continue;
+				}
+				ExplorationPath next = current.append(s, resTime);
+				if(!drop(next, expanded, dropped, parked))
+					queue.add(next);
+			}
+		}
+		return intentions;
+	}
+
+	/**
+	 * Drop a path if an arrival at the same station that is at least as early, with at least as many hops left, has been expanded,
+	 * and the arrivals that one extends still drop later arrivals at the stations the path hasn't passed. The path is kept
+	 * with all these arrivals, in case one of them stops dropping later arrivals.
+	 *
+	 * @param path - The path
+	 * @param expanded - The expanded arrivals per station that can drop later arrivals
+	 * @param dropped - The dropped arrivals per expanded arrival
+	 * @param parked - All dropped arrivals
+	 * @return boolean - Whether the path has been dropped
+	 */
+	private static boolean drop(ExplorationPath path, HashMap<Station, ArrayList<ExplorationPath>> expanded,
+			HashMap<ExplorationPath, ArrayList<ExplorationPath>> dropped, HashSet<ExplorationPath> parked) {
+		ArrayList<ExplorationPath> arrivals = expanded.get(path.getStation());
+		if(arrivals == null)
+			return false;
+		for(ExplorationPath arrival : arrivals) {
+			if(arrival.getTime() > path.getTime() || arrival.size() > path.size() || !extendsExpanded(arrival, path, expanded))
+				continue;
+			for(ExplorationPath p = arrival; p != null; p = p.getParent()) {
+				if(p != arrival && path.contains(p.getStation()))
+					continue;
+				ArrayList<ExplorationPath> list = dropped.get(p);
+				if(list == null) {
+					list = new ArrayList<>();
+					dropped.put(p, list);
+				}
+				list.add(path);
+			}
+			parked.add(path);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether an arrival only extends arrivals that can still drop later arrivals, at the stations another path hasn't passed.
+	 *
+	 * @param arrival - The arrival
+	 * @param path - The other path
+	 * @param expanded - The expanded arrivals per station that can drop later arrivals
+	 * @return boolean
+	 */
+	private static boolean extendsExpanded(ExplorationPath arrival, ExplorationPath path, HashMap<Station, ArrayList<ExplorationPath>> expanded) {
+		for(ExplorationPath p = arrival.getParent(); p != null; p = p.getParent())
+			if(!path.contains(p.getStation()) && !expanded.get(p.getStation()).contains(p))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Stop a path that couldn't be extended, and the paths it extends, from dropping later arrivals, and queue the arrivals
+	 * they have dropped again.
+	 *
+	 * @param path - The path
+	 * @param expanded - The expanded arrivals per station that can drop later arrivals
+	 * @param dropped - The dropped arrivals per expanded arrival
+	 * @param parked - All dropped arrivals
+	 * @param queue - The queue of partial paths
+	 */
+	private static void release(ExplorationPath path, HashMap<Station, ArrayList<ExplorationPath>> expanded,
+			HashMap<ExplorationPath, ArrayList<ExplorationPath>> dropped, HashSet<ExplorationPath> parked, PriorityQueue<ExplorationPath> queue) {
+		// Once a path has been released, the paths it extends have been released as well.
+		for(ExplorationPath p = path; p != null && expanded.get(p.getStation()).remove(p); p = p.getParent()) {
+			ArrayList<ExplorationPath> list = dropped.remove(p);
+			if(list == null)
+				continue;
+			for(ExplorationPath d : list)
+				if(parked.remove(d))
+					queue.add(d);
+		}
+	}
+
+	/**
+	 * Compute the earliest reservation times along an intention that was found before, following the same rules as explore().
+	 * The last station of the intention is taken to be its destination.
+	 *
+	 * @param intention - The intention
+	 * @param pod - The pod that is exploring
+	 * @param currentTime - The current time
+	 * @return ExplorationPath - The same stations with their current reservation times, or null if the intention is no longer feasible.
+	 */
+	public static ExplorationPath retime(ExplorationPath intention, Pod pod, long currentTime) {
+		return time(intention.getStations(), pod, currentTime);
+	}
+
+	/**
+	 * Compute the earliest reservation times along a sequence of stations, following the same rules as explore().
+	 * The last station is taken to be the destination.
+	 *
+	 * @param stations - The stations, starting at the one the pod is at. Every next station must be a neighbour, and no station may occur twice.
+	 * @param pod - The pod that is exploring
+	 * @param currentTime - The current time
+	 * @return ExplorationPath - The stations with their reservation times, or null if the sequence isn't feasible.
+	 */
+	public static ExplorationPath time(Station[] stations, Pod pod, long currentTime) {
+		Station start = stations[0];
+		if(stations.length == 1) {
+			long resTime = start.checkPossibleEndReservationTime(currentTime + Station.RESERVATION_TIME).begin();
+			return resTime > UNREACHABLE_DESTINATION_TIME ? null : new ExplorationPath(start, resTime);
+		}
+
+		long startTime = currentTime + Station.RESERVATION_TIME;
+		if(start.getPod() != pod) {
+			startTime = start.checkPossibleReservationTime(startTime).begin();
+			if(startTime > UNREACHABLE_TIME)
+				return null;
+		}
+
+		ExplorationPath current = new ExplorationPath(start, startTime);
+		for(int i = 1; i < stations.length; i++) {
+			Station s = stations[i];
+			long resTime;
+			if(i == stations.length - 1) {
+				resTime = s.checkPossibleEndReservationTime(current.getTime() + Station.RESERVATION_TIME).begin();
+				if(resTime > UNREACHABLE_DESTINATION_TIME)
+					return null;
+			} else if(s.getPod() == pod) {
+				resTime = currentTime + Station.RESERVATION_TIME;
+			} else {
+				resTime = s.checkPossibleReservationTime(current.getTime() + Station.RESERVATION_TIME).begin();
+				if(resTime > UNREACHABLE_TIME)
+					return null;
+			}
+			if(current.getStation().getPod() != pod && !current.getStation().isFree(current.getTime(), resTime))
+				return null;
+			current = current.append(s, resTime);
+		}
+		return current;
+	}
+
+	/**
+	 * Get the number of hops from a station to the destination of an exploration.
+	 *
+	 * @param distances - The distances between the stations
+	 * @param s - The station
+	 * @param dest - The destination. If this is null, the nearest station with a loading dock is the destination.
+	 * @return int
+	 */
+	private static int getHops(DistanceTable distances, Station s, Station dest) {
+		if(dest == null)
+			return distances.getHopsToLoadingDock(s);
+		return distances.getHops(s, dest);
+	}
+
+	/**
+	 * Check whether a station is the destination of an exploration.
+	 *
+	 * @param s - The station
+	 * @param dest - The destination. If this is null, any station with a loading dock is a destination.
+	 * @return boolean
+	 */
+	private static boolean isDestination(Station s, Station dest) {
+		if(dest == null)
+			return s.getLoadingDock() != null;
+		return s == dest;
+	}
+}
@@ -0,0 +1,109 @@
+package rinsim;
+
+/**
+ * An immutable path of stations with their earliest possible reservation times, as carried by an exploration ant.
+ * Each path only stores its last station and points to the path it extends, so paths that branch off
+ * the same prefix share it. Appending a station and reading the last station are O(1).
+ */
+public class ExplorationPath {
+
+	private final Station station;
+	private final long time;
+	private final ExplorationPath parent;
+	private final ExplorationPath first;
+	private final int size;
+
+	/**
+	 * Create a path that only contains the given station.
+	 *
+	 * @param station - The first station
+	 * @param time - The earliest possible reservation time at that station
+	 */
+	public ExplorationPath(Station station, long time) {
+		this(station, time, null);
+	}
+
+	private ExplorationPath(Station station, long time, ExplorationPath parent) {
+		this.station = station;
+		this.time = time;
+		this.parent = parent;
+		this.first = parent == null ? this : parent.first;
+		this.size = parent == null ? 1 : parent.size + 1;
+	}
+
+	/**
+	 * Extend this path with a station. This path itself is left untouched.
+	 *
+	 * @param s - The next station
+	 * @param t - The earliest possible reservation time at that station
+	 * @return ExplorationPath - The extended path
+	 */
+	public ExplorationPath append(Station s, long t) {
+		return new ExplorationPath(s, t, this);
+	}
+
+	/**
+	 * Check whether a station is part of this path.
+	 *
+	 * @param s - The station
+	 * @return boolean
+	 */
+	public boolean contains(Station s) {
+		for(ExplorationPath p = this; p != null; p = p.parent)
+			if(p.station == s)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Get the stations of this path, starting at the first one.
+	 *
+	 * @return Station[]
+	 */
+	public Station[] getStations() {
+		Station[] stations = new Station[size];
+		int i = size;
+		for(ExplorationPath p = this; p != null; p = p.parent)
+			stations[--i] = p.station;
+		return stations;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for(Station s : getStations()) {
+			if(sb.length() > 0)
+				sb.append(", ");
+			sb.append(s.getPosition());
+		}
+		return "(" + sb + ")";
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public Station getStation() {
+		return station;
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	public ExplorationPath getParent() {
+		return parent;
+	}
+
+	public ExplorationPath getFirst() {
+		return first;
+	}
+
+	public long getStartTime() {
+		return first.time;
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,220 @@
+package rinsim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+
+import com.github.rinde.rinsim.geom.Connection;
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.MultimapGraph;
+import com.github.rinde.rinsim.geom.Point;
+import com.github.rinde.rinsim.geom.TableGraph;
+
+/**
+ * Reads graphs from files, as an alternative to the hard-coded graph of GraphModel. Two formats are supported:
+ *
+ * - An edge list: a text file with one road per line, given as the coordinates of both ends: "x1 y1 x2 y2".
+ *   Empty lines and lines starting with # are skipped.
+ * - A binary format for big graphs (extension .bin): the magic number, the number of nodes and the number of edges as ints,
+ *   followed by the coordinates of each node as two doubles and each edge as the indices of its two nodes as ints.
+ *
+ * Each road is added in both directions while reading. Big graphs are stored in a MultimapGraph, which only keeps the
+ * outgoing connections per node, instead of a TableGraph.
+ *
+ * Started as a program, it converts an edge list into the binary format: GraphLoader <edge list> <output.bin>
+ */
+public class GraphLoader {
+
+	// The first int of a file in the binary format.
+	private static final int MAGIC = 0x52534731; // "RSG1"
+	// The number of edges from which a graph is considered big.
+	private static final int BIG_GRAPH = 10000;
+	// The approximate number of bytes per line of an edge list, used to estimate the number of edges from the file size.
+	private static final int LINE_LENGTH = 24;
+
+	public GraphLoader() {}
+
+	public static void main(String[] args) throws IOException {
+		if(args.length != 2) {
+			System.err.println("Usage: GraphLoader <edge list> <output.bin>");
+			System.exit(1);
+		}
+		GraphLoader loader = new GraphLoader();
+		Graph<ConnectionData> g = loader.readEdgeList(new File(args[0]));
+		loader.writeBinary(g, new File(args[1]));
+		System.out.println("Converted " + g.getNumberOfNodes() + " nodes and " + g.getNumberOfConnections() + " connections.");
+	}
+
+	/**
+	 * Read a graph, in the binary format if the file name ends with .bin and as an edge list otherwise.
+	 *
+	 * @param path - The path of the file
+	 * @return Graph<ConnectionData>
+	 */
+	public Graph<ConnectionData> load(String path) throws IOException {
+		File f = new File(path);
+		if(path.endsWith(".bin"))
+			return readBinary(f);
+		return readEdgeList(f);
+	}
+
+	/**
+	 * Read a graph from an edge list.
+	 *
+	 * @param f - The file
+	 * @return Graph<ConnectionData>
+	 */
+	public Graph<ConnectionData> readEdgeList(File f) throws IOException {
+		Graph<ConnectionData> g = createGraph(f.length() / LINE_LENGTH);
+		// The points that have been read so far, so that each node is only stored once.
+		HashMap<Point, Point> points = new HashMap<>();
+
+		BufferedReader input = new BufferedReader(new FileReader(f));
+		try {
+			String line;
+			int number = 0;
+			while((line = input.readLine()) != null) {
+				number++;
+				line = line.trim();
+				if(line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				String[] parts = line.split("\\s+");
+				if(parts.length != 4)
+					throw new IOException(f + ", line " + number + ": expected \"x1 y1 x2 y2\" but got \"" + line + "\".");
+				try {
+					Point from = intern(points, new Point(Double.parseDouble(parts[0]), Double.parseDouble(parts[1])));
+					Point to = intern(points, new Point(Double.parseDouble(parts[2]), Double.parseDouble(parts[3])));
+					addRoad(g, from, to);
+				} catch(NumberFormatException e) {
+					throw new IOException(f + ", line " + number + ": " + e.getMessage());
+				}
+			}
+		} finally {
+			input.close();
+		}
+		return g;
+	}
+
+	/**
+	 * Read a graph in the binary format.
+	 *
+	 * @param f - The file
+	 * @return Graph<ConnectionData>
+	 */
+	public Graph<ConnectionData> readBinary(File f) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
+		try {
+			if(input.readInt() != MAGIC)
+				throw new IOException(f + " is not a graph in the binary format.");
+			int nodes = input.readInt();
+			int edges = input.readInt();
+
+			Point[] points = new Point[nodes];
+			for(int i = 0; i < nodes; i++)
+				points[i] = new Point(input.readDouble(), input.readDouble());
+
+			Graph<ConnectionData> g = createGraph(edges);
+			for(int i = 0; i < edges; i++) {
+				int from = input.readInt();
+				int to = input.readInt();
+				if(from < 0 || from >= nodes || to < 0 || to >= nodes)
+					throw new IOException(f + ", edge " + i + ": node index out of range.");
+				addRoad(g, points[from], points[to]);
+			}
+			return g;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Write a graph in the binary format. Roads that exist in both directions are written once.
+	 *
+	 * @param g - The graph
+	 * @param f - The file
+	 */
+	public void writeBinary(Graph<ConnectionData> g, File f) throws IOException {
+		HashMap<Point, Integer> ids = new HashMap<>();
+		for(Point p : g.getNodes())
+			ids.put(p, ids.size());
+		int edges = 0;
+		for(Connection<ConnectionData> c : g.getConnections())
+			if(isWritten(g, c, ids))
+				edges++;
+
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(ids.size());
+			output.writeInt(edges);
+			for(Point p : g.getNodes()) {
+				output.writeDouble(p.x);
+				output.writeDouble(p.y);
+			}
+			for(Connection<ConnectionData> c : g.getConnections()) {
+				if(isWritten(g, c, ids)) {
+					output.writeInt(ids.get(c.from()));
+					output.writeInt(ids.get(c.to()));
+				}
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Create an empty graph that suits the expected number of edges.
+	 *
+	 * @param edges - The expected number of edges
+	 * @return Graph<ConnectionData>
+	 */
+	private static Graph<ConnectionData> createGraph(long edges) {
+		if(edges >= BIG_GRAPH)
+			return new MultimapGraph<>();
+		return new TableGraph<>();
+	}
+
+	/**
+	 * Add a road in both directions, unless it's already there.
+	 *
+	 * @param g - The graph
+	 * @param from - One end of the road
+	 * @param to - The other end of the road
+	 */
+	private static void addRoad(Graph<ConnectionData> g, Point from, Point to) {
+		if(from.equals(to))
+			return;
+		if(!g.hasConnection(from, to))
+			g.addConnection(from, to);
+		if(!g.hasConnection(to, from))
+			g.addConnection(to, from);
+	}
+
+	/**
+	 * Check whether a connection is written to a file: one-way connections always are, two-way roads only in one direction.
+	 */
+	private static boolean isWritten(Graph<ConnectionData> g, Connection<ConnectionData> c, HashMap<Point, Integer> ids) {
+		return !g.hasConnection(c.to(), c.from()) || ids.get(c.from()) < ids.get(c.to());
+	}
+
+	/**
+	 * Get the instance of a point that has been read before, so that equal points share one instance.
+	 */
+	private static Point intern(HashMap<Point, Point> points, Point p) {
+		Point known = points.get(p);
+		if(known != null)
+			return known;
+		points.put(p, p);
+		return p;
+	}
+}
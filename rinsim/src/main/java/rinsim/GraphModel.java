@@ -1,5 +1,8 @@
 package rinsim;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+
 import com.github.rinde.rinsim.geom.Connection;
 import com.github.rinde.rinsim.geom.ConnectionData;
 import com.github.rinde.rinsim.geom.Graph;
@@ -8,7 +11,104 @@ import com.github.rinde.rinsim.geom.TableGraph;
 
 public class GraphModel {
 	
+	// The distance between two neighbouring points in a generated grid.
+	private static final double GRID_SPACING = 2;
+	
 	public GraphModel() {};
+	
+	/**
+	 * Generate a grid in which each point is connected to the points left, right, above and below it, in both directions.
+	 * 
+	 * @param columns - The number of points per row
+	 * @param rows - The number of points per column
+	 * @return Graph<ConnectionData>
+	 */
+	public Graph<ConnectionData> getGridGraph(int columns, int rows) {
+		Graph<ConnectionData> g = new TableGraph<>();
+		for(int x = 0; x < columns; x++) {
+			for(int y = 0; y < rows; y++) {
+				Point p = new Point(x * GRID_SPACING, y * GRID_SPACING);
+				if(x + 1 < columns) {
+					Point right = new Point((x + 1) * GRID_SPACING, y * GRID_SPACING);
+					g.addConnection(p, right);
+					g.addConnection(right, p);
+				}
+				if(y + 1 < rows) {
+					Point below = new Point(x * GRID_SPACING, (y + 1) * GRID_SPACING);
+					g.addConnection(p, below);
+					g.addConnection(below, p);
+				}
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * Choose the positions of the loading docks in a generated grid, spread evenly over it.
+	 * Only every third point in both directions is a candidate, so that no two loading docks are neighbours
+	 * and each station has at most one loading dock as neighbour.
+	 * 
+	 * @param columns - The number of points per row
+	 * @param rows - The number of points per column
+	 * @param count - The number of loading docks
+	 * @return Point[]
+	 */
+	public Point[] getGridLoadingDockPositions(int columns, int rows, int count) {
+		ArrayList<Point> candidates = new ArrayList<>();
+		for(int x = 1; x < columns; x += 3)
+			for(int y = 1; y < rows; y += 3)
+				candidates.add(new Point(x * GRID_SPACING, y * GRID_SPACING));
+		if(count > candidates.size())
+			throw new IllegalArgumentException("A " + columns + "x" + rows + " grid has room for " + candidates.size() + " loading docks, not " + count + ".");
+		
+		Point[] positions = new Point[count];
+		for(int i = 0; i < count; i++)
+			positions[i] = candidates.get((int) ((long) i * candidates.size() / count));
+		return positions;
+	}
+
+	/**
+	 * Choose the positions of the loading docks in any graph, spread over its nodes.
+	 * A node is only chosen when no other loading dock lies within two hops, so that no two loading docks are neighbours
+	 * and each station has at most one loading dock as neighbour.
+	 * 
+	 * @param g - The graph
+	 * @param count - The number of loading docks
+	 * @return Point[]
+	 */
+	public Point[] getLoadingDockPositions(Graph<ConnectionData> g, int count) {
+		ArrayList<Point> nodes = new ArrayList<>(g.getNodes());
+		HashSet<Point> blocked = new HashSet<>();
+		ArrayList<Point> positions = new ArrayList<>();
+		
+		// First try nodes at even intervals, then fill up with the remaining nodes in order.
+		for(int i = 0; i < count; i++)
+			addLoadingDockPosition(g, nodes.get((int) ((long) i * nodes.size() / count)), blocked, positions);
+		for(int i = 0; i < nodes.size() && positions.size() < count; i++)
+			addLoadingDockPosition(g, nodes.get(i), blocked, positions);
+		if(positions.size() < count)
+			throw new IllegalArgumentException("The graph has room for " + positions.size() + " loading docks, not " + count + ".");
+		return positions.toArray(new Point[count]);
+	}
+
+	/**
+	 * Add a node to the loading dock positions, unless another loading dock lies within two hops or it has no neighbours.
+	 * 
+	 * @param g - The graph
+	 * @param p - The node
+	 * @param blocked - The nodes within two hops of a loading dock
+	 * @param positions - The loading dock positions so far
+	 */
+	private void addLoadingDockPosition(Graph<ConnectionData> g, Point p, HashSet<Point> blocked, ArrayList<Point> positions) {
+		if(blocked.contains(p) || g.getOutgoingConnections(p).isEmpty())
+			return;
+		positions.add(p);
+		blocked.add(p);
+		for(Point n : g.getOutgoingConnections(p)) {
+			blocked.add(n);
+			blocked.addAll(g.getOutgoingConnections(n));
+		}
+	}
 
 	public Graph<ConnectionData> getGraph() {
 		Point p1 = new Point(0, 0);
@@ -1,7 +1,5 @@
 package rinsim;
 
-import java.util.ArrayList;
-
 import com.github.rinde.rinsim.core.model.pdp.Depot;
 import com.github.rinde.rinsim.core.model.time.TimeLapse;
 import com.github.rinde.rinsim.geom.Point;
@@ -11,36 +9,44 @@ public class LoadingDock extends Depot {
 	
 	private Point position;
 	private Pod pod;
-	ArrayList<Station> neighbours = new ArrayList<>();
+	private SimulationContext context;
+	// The index of this loading dock among all stations and loading docks of the simulation, see Topology.
+	private int id;
 
-	public LoadingDock(Point position, int cap) {
+	public LoadingDock(Point position, int cap, SimulationContext context) {
 		super(position);
 		setPosition(position);
 		setCapacity(cap);
 		setPod(null);
-		
+		setContext(context);
 	}
 	
 	/**
 	 * Make a reservation (the quickest if there are multiple options) for the pod to leave the loadingdock.
+	 * The neighbouring stations are read from the connections of the topology.
 	 * 
 	 * @param pod
 	 * @return Reservation
 	 */
 	public Reservation leave(Pod pod, TimeLapse time) {
-		Station bestStation = getNeighbours().get(0);
+		Topology topology = getContext().getTopology();
+		int[] targets = topology.getTargets();
+		Station bestStation = topology.getStation(targets[topology.getFirst(getId())]);
 		TimeWindow bestTime = bestStation.checkPossibleReservationTime(time.getTime());
 		
 		// Determine which neighbour is the quickest getaway.
-		for(Station s : getNeighbours()) {
-			if(s.checkPossibleReservationTime(time.getTime()).begin() < bestTime.begin())
-				bestTime = s.checkPossibleReservationTime(time.getTime());
+		for(int i = topology.getFirst(getId()) + 1; i < topology.getStationLimit(getId()); i++) {
+			Station s = topology.getStation(targets[i]);
+			TimeWindow t = s.checkPossibleReservationTime(time.getTime());
+			if(t.begin() < bestTime.begin()) {
+				bestTime = t;
 				bestStation = s;
+			}
 		}
 		
 		// Make a reservation, and add it to the station.
 		Reservation r = new Reservation(bestStation, null, bestTime, pod, bestTime.end());
-		bestStation.getReservations().add(r);
+		bestStation.getCalendar().add(r);
 		
 		return r;
 	}
@@ -49,14 +55,6 @@ public class LoadingDock extends Depot {
 	 * Getters and setters
 	 */
 	
-	public ArrayList<Station> getNeighbours() {
-		return neighbours;
-	}
-
-	public void setNeighbours(ArrayList<Station> neighbours) {
-		this.neighbours = neighbours;
-	}
-
 	public Point getPosition() {
 		return position;
 	}
@@ -72,6 +70,22 @@ public class LoadingDock extends Depot {
 	public void setPod(Pod pod) {
 		this.pod = pod;
 	}
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public SimulationContext getContext() {
+		return context;
+	}
+
+	public void setContext(SimulationContext context) {
+		this.context = context;
+	}
 	
 
 }
@@ -1,12 +1,13 @@
 package rinsim;
 
 import java.awt.AWTException;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 
 import javax.measure.unit.SI;
 
@@ -19,10 +20,10 @@ import com.github.rinde.rinsim.core.model.road.RoadModel;
 import com.github.rinde.rinsim.core.model.road.RoadModelBuilders;
 import com.github.rinde.rinsim.core.model.time.TickListener;
 import com.github.rinde.rinsim.core.model.time.TimeLapse;
-import com.github.rinde.rinsim.geom.Connection;
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
 import com.github.rinde.rinsim.geom.Point;
 import com.github.rinde.rinsim.ui.View;
-import com.github.rinde.rinsim.ui.View.Builder;
 import com.github.rinde.rinsim.ui.renderers.GraphRoadModelRenderer;
 import com.github.rinde.rinsim.ui.renderers.RoadUserRenderer;
 
@@ -36,220 +37,331 @@ public class PeopleMover {
 	private static final int MAX_PODCAPACITY = 4;
 	// The number of charging spaces per charging dock.
 	private static final int MAX_CHARGECAPACITY = 1; 
-	// Are we currently using the sophisticated task planning algorithm?
-	public static boolean ADVANCED_PLANNING = false;
-	// The probability of a new user spawning.
-	private static double SPAWN_RATE = 0.05;
-	// The maximal number of users on the graph at any time. Can be overridden by NUM_USERS.
-	private static int MAX_USERS = 30;
-	// The delivery deadline that we should try to meet for each user.
-	private static int DELIVERY_DEADLINE = 3600000; // 1 hour
-	// Show experiment results. Best to not use this together with the DEBUGGING flag enabled because of spam.
-	public static boolean EXPERIMENTING = false;
+	// Are we currently using the sophisticated task planning algorithm? (default, see RunConfiguration)
+	private static final boolean ADVANCED_PLANNING = false;
+	// The probability of a new user spawning. (default, see RunConfiguration)
+	private static final double SPAWN_RATE = 0.05;
+	// The maximal number of users on the graph at any time. Can be overridden by NUM_USERS. (default, see RunConfiguration)
+	private static final int MAX_USERS = 30;
+	// The delivery deadline that we should try to meet for each user. (default, see RunConfiguration)
+	private static final int DELIVERY_DEADLINE = 3600000; // 1 hour
+	// The seed of the random generator used by the simulator.
+	private static final long SEED = 123;
+	// The simulated time between two telemetry samples of a headless run.
+	private static final long TELEMETRY_INTERVAL = 60000; // 1 minute
 
-	// The starting positions that contain a loading dock and spawn a pod initially.
+	// The starting positions that contain a loading dock and spawn a pod initially, on the graph of GraphModel.
 	private static final Point[] startPos = {new Point(0, 0), new Point(7.2, 2.6), new Point(13.7, 7)};
 	
 
 	private ArrayList<Station> stations = new ArrayList<>();
 	private ArrayList<LoadingDock> loadingDocks = new ArrayList<>();
-	public static int usersOnTime = 0;
-	public static ArrayList<Double> delays = new ArrayList<>();
+	private ArrayList<Pod> pods = new ArrayList<>();
+	// Indices of the stations and loading docks by their position, built once during setup.
+	private HashMap<Point, Station> stationIndex = new HashMap<>();
+	private HashMap<Point, LoadingDock> loadingDockIndex = new HashMap<>();
+	private HashSet<Point> loadingDockPositions = new HashSet<>();
+	private SimulationContext context;
+	// The simulated time between two progress reports. 0 disables them.
+	private long progressInterval = 0;
+	// Where samples of the state of the simulation are written to at a fixed interval of simulated time, or null.
+	private ResultsWriter telemetryResults = null;
+	private long telemetryInterval = 0;
+	private boolean detailedTelemetry = false;
+	private TelemetryProbe telemetry = null;
+	// The number of threads on which the pods prepare their decisions (see DecisionPhase). Below 2 they decide during their own tick.
+	private int decisionThreads = 0;
+	private DecisionPhase decisions = null;
+	// The number of regions the stations are split into, each updated on its own thread (see StationPhase). Below 2 the stations are updated in the tick.
+	private int regions = 0;
+	private StationPhase stationPhase = null;
 	
 	
 	
+	/**
+	 * Run a simulation in a GUI, or headless when started with "headless <hours>" as arguments.
+	 * Headless runs can use a graph file with a number of pods: "headless <hours> <graph file> <pods>",
+	 * can write telemetry samples to a file when "telemetry <file>" is added to the arguments,
+	 * and can split the stations into regions that are updated in parallel when "regions <count>" is added. The pods then
+	 * also prepare their decisions on as many threads, since the pods themselves aren't split into regions.
+	 */
 	public static void main(String[] args) throws URISyntaxException, IOException, AWTException {
 		PeopleMover pm = new PeopleMover();
-		pm.run(0, null);
+		AntMetrics.registerMBean();
+		String telemetryFile = null;
+		while(args.length >= 2 && (args[args.length - 2].equals("telemetry") || args[args.length - 2].equals("regions"))) {
+			if(args[args.length - 2].equals("telemetry")) {
+				telemetryFile = args[args.length - 1];
+			} else {
+				pm.setRegions(Integer.parseInt(args[args.length - 1]));
+				pm.setDecisionThreads(pm.getRegions());
+			}
+			args = Arrays.copyOf(args, args.length - 2);
+		}
+		if((args.length == 2 || args.length == 4) && args[0].equals("headless")) {
+			long duration = (long) (Double.parseDouble(args[1]) * 3600000);
+			String graphFile = args.length == 4 ? args[2] : null;
+			int pods = args.length == 4 ? Integer.parseInt(args[3]) : 0;
+			pm.setProgressInterval(3600000);
+			ResultsWriter telemetry = telemetryFile == null ? null : new ResultsWriter(telemetryFile);
+			pm.setTelemetry(telemetry, TELEMETRY_INTERVAL, true);
+			try {
+				System.out.println(pm.run(new RunConfiguration(SPAWN_RATE, ADVANCED_PLANNING, MAX_USERS, DELIVERY_DEADLINE, duration, SEED, 0, pods, graphFile), ViewMode.HEADLESS, null));
+			} finally {
+				if(telemetry != null)
+					telemetry.close();
+			}
+			if(AntMetrics.getInstance().isEnabled())
+				for(AntMetrics.Snapshot snapshot : AntMetrics.getInstance().getSnapshots())
+					System.out.println(snapshot);
+		} else {
+			pm.run(new RunConfiguration(SPAWN_RATE, ADVANCED_PLANNING, MAX_USERS, DELIVERY_DEADLINE, 0, SEED), ViewMode.INTERACTIVE, null);
+		}
 	}
 	
 	PeopleMover() {}
 	
-	public void run(final long maxTime, final String path) throws URISyntaxException, IOException, AWTException {
+	/**
+	 * Set up and run a simulation.
+	 * 
+	 * In headless mode, no View is created and the simulator executes the ticks as fast as possible.
+	 * 
+	 * @param config - The parameters of the run
+	 * @param mode - How the simulation should be shown
+	 * @param results - Where the results are written to when the run ends, or null
+	 * @return RunResult - The results of the run
+	 */
+	public RunResult run(final RunConfiguration config, ViewMode mode, final ResultsWriter results) throws URISyntaxException, IOException, AWTException {
+		Simulator simulator = setUp(config, mode, results);
+		simulator.start();
+		stopWorkers();
+		if(telemetry != null) {
+			try {
+				telemetry.close();
+				if(telemetry.getDropped() > 0)
+					System.err.println("Dropped " + telemetry.getDropped() + " telemetry samples because they couldn't be written in time.");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return new RunResult(config, getContext().getUsersOnTime(), getContext().getDelays());
+	}
+	
+	/**
+	 * Stop the worker threads of the parallel phases of a simulation that was set up, if it has any.
+	 * A simulation that was set up with setUp and ticked by hand has to be stopped with this method.
+	 */
+	public void stopWorkers() {
+		if(decisions != null)
+			decisions.close();
+		if(stationPhase != null)
+			stationPhase.close();
+	}
 	
-		// Create the graph.
+	/**
+	 * Set up a simulation without starting it: create the simulator, the stations, loading docks, users and pods.
+	 * 
+	 * @param config - The parameters of the run
+	 * @param mode - How the simulation should be shown
+	 * @param results - Where the results are written to when the run ends, or null
+	 * @return Simulator - The simulator, ready to be started or ticked
+	 */
+	public Simulator setUp(final RunConfiguration config, ViewMode mode, final ResultsWriter results) throws IOException {
+		final long maxTime = config.getDuration();
+		final SimulationContext context = new SimulationContext(config);
+		setContext(context);
+	
+		// Create the graph: read from a file or generated with a loading dock per pod, or the hard-coded one.
 		GraphModel gm = new GraphModel();
-		Builder view = createGui();
+		Graph<ConnectionData> graph;
+		Point[] docks;
+		if(config.getGraphFile() != null) {
+			graph = new GraphLoader().load(config.getGraphFile());
+			docks = gm.getLoadingDockPositions(graph, config.getFleetSize());
+		} else if(config.getGraphSize() == 0) {
+			graph = gm.getGraph();
+			docks = startPos;
+		} else {
+			int side = (int) Math.round(Math.sqrt(config.getGraphSize()));
+			graph = gm.getGridGraph(side, side);
+			docks = gm.getGridLoadingDockPositions(side, side, config.getFleetSize());
+		}
+		loadingDockPositions.addAll(Arrays.asList(docks));
 
-		final Simulator simulator = Simulator.builder()
-			      .addModel(RoadModelBuilders.staticGraph(gm.getGraph()))
+		Simulator.Builder builder = Simulator.builder()
+			      .addModel(RoadModelBuilders.staticGraph(graph))
 			      .addModel(DefaultPDPModel.builder())
-			      .addModel(view)
 			      .setTimeUnit(SI.MILLI(SI.SECOND))
-			      .build();
+			      .setRandomSeed(config.getSeed());
+		if(mode != ViewMode.HEADLESS)
+			builder.addModel(createGui(mode));
+		final Simulator simulator = builder.build();
 		
 		final RandomGenerator r = simulator.getRandomGenerator();
 		final RoadModel roadModel = simulator.getModelProvider().getModel(RoadModel.class);
 		
 		// Create a station on every vertex of the graph, except for the loading dock positions.
-		for(Point p : gm.getGraph().getNodes()) {
-			if(!Arrays.asList(startPos).contains(p)) {
-				Station s = new Station(p);
+		for(Point p : graph.getNodes()) {
+			if(!loadingDockPositions.contains(p)) {
+				Station s = new Station(p, context);
 				getStations().add(s);
+				stationIndex.put(p, s);
 				simulator.register(s);
 			}
 		}
 		
-		// Create a set amount of loading docks at predefined positions (in the startPos array).
-		for(int i = 0; i < startPos.length; i++) {
-			LoadingDock l = new LoadingDock(startPos[i], MAX_CHARGECAPACITY);
+		// Create a set amount of loading docks at predefined positions.
+		for(int i = 0; i < docks.length; i++) {
+			LoadingDock l = new LoadingDock(docks[i], MAX_CHARGECAPACITY, context);
 			getLoadingDocks().add(l);
+			loadingDockIndex.put(docks[i], l);
 			simulator.register(l);
 		}
 		
-		// Set the neighbours for each station. Assume that each station has maximally one loading dock as neighbour.
-		for(Connection<?> c : gm.getGraph().getConnections()) {
-			Station s1 = getStationAtPoint(c.from());
-			Station s2 = getStationAtPoint(c.to());
-			LoadingDock d1 = getLoadingDockAtPoint(c.from());
-			LoadingDock d2 = getLoadingDockAtPoint(c.to());
-
-			if(s1 == null) {
-				addNeighbour(d1, s2);
-				addLoadingDock(s2, d1);
-			} else if(s2 == null) {
-				addNeighbour(d2, s1);
-				addLoadingDock(s1, d2);
-			} else {					
-				makeNeighbours(s1, s2);
-			}
-		}
+		// Give every station and loading dock an id and collect their connections along the graph.
+		Topology topology = new Topology(getStations(), getLoadingDocks(), graph);
+		context.setTopology(topology);
+		
+		// Compute the distances between the stations, now that they are connected.
+		context.setDistances(new DistanceTable(topology));
+		
+		// Split the stations into regions that are updated in parallel, if requested.
+		if(getRegions() > 1)
+			stationPhase = new StationPhase(getStations(), getRegions(), String.valueOf(config.getSeed()));
+		
+		// Let a central dispatcher assign the users to the pods, if requested.
+		if(config.getDispatchWindow() > 0)
+			context.setDispatcher(new Dispatcher(context.getDistances()));
 		
 		// Spawn in the original number of users.
 		for(int i = 0;  i < NUM_USERS; i++) {
 			addRandomUser(roadModel, r, simulator);
 		}
 		
+		// Prepare the decisions of the pods in parallel at the start of each tick, if requested. This has to tick before the pods.
+		if(getDecisionThreads() > 1) {
+			decisions = new DecisionPhase(getPods(), getDecisionThreads(), String.valueOf(config.getSeed()));
+			simulator.addTickListener(decisions);
+		}
+		
 		// Spawn in the pods at the predefined locations and register them with the loading dock.
-		for(int i = 0; i < startPos.length; i++) {
-			LoadingDock s = getLoadingDockAtPoint(startPos[i]);
-			Pod p = new Pod(startPos[i], MAX_PODCAPACITY, s);
+		for(int i = 0; i < docks.length; i++) {
+			LoadingDock s = getLoadingDockAtPoint(docks[i]);
+			Pod p = new Pod(docks[i], MAX_PODCAPACITY, s, r.nextLong(), context);
 			s.setPod(p);
+			getPods().add(p);
 			simulator.register(p);
 		}
 				
+		// Report the progress of the run, if requested.
+		if(getProgressInterval() > 0)
+			simulator.addTickListener(new ProgressReporter("Run with seed " + config.getSeed(), getProgressInterval(), maxTime));
+				
 		// Handle ticks
 		simulator.addTickListener(new TickListener() {
+			// The time at which the dispatcher assigns users next.
+			private long nextDispatch = 0;
+			
 			@Override
 			public void tick(TimeLapse timeLapse) {
 				
 				if(maxTime != 0)
 					if(timeLapse.getEndTime() >= maxTime) {			
-						try {
-							BufferedWriter output = new BufferedWriter(new FileWriter(path, true));
-							if(PeopleMover.ADVANCED_PLANNING)
-								output.append("Experiments with advanced planning, spawn rate " + PeopleMover.getSPAWN_RATE() + "\n\n");
-							else
-								output.append("Experiments with basic planning, spawn rate " + PeopleMover.getSPAWN_RATE() + "\n\n");
-
-							output.append("Users delivered on time: " + PeopleMover.getUsersOnTime() + "\n");
-							output.append("Users not delivered on time: " + PeopleMover.getDelays().size() + "\n\n");
-							
-							double sum = 0;
-							for(double d : PeopleMover.getDelays())
-								sum += d;
-							double average = sum/PeopleMover.getDelays().size();
-							
-							output.append("Average delay: " + average + " milliseconds or " + (int) ((average / (1000*60*60)) % 24) + " hours, " + (int) ((average / (1000*60)) % 60) + " minutes "
-									+ "and " + (int) ((average / 1000) % 60) + " second(s).\n");							
-							output.append("========================================================================================================================================\n\n\n");
-							output.close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
+						if(results != null)
+							writeResults(results);
 						simulator.stop();
 					}
-					
 				
-				// Spawn a new user at a predefined rate, but only when the max number of users has not been reached yet.
-				if(r.nextDouble() < SPAWN_RATE && roadModel.getObjectsOfType(User.class).size() < MAX_USERS) {
-					addRandomUser(roadModel, r, simulator);
+				// Spawn new users at a predefined rate, but only when the max number of users has not been reached yet.
+				// A rate above 1 spawns several users per tick.
+				int spawns = (int) config.getSpawnRate();
+				if(r.nextDouble() < config.getSpawnRate() - spawns)
+					spawns++;
+				if(spawns > 0) {
+					int users = roadModel.getObjectsOfType(User.class).size();
+					for(int i = 0; i < spawns && users + i < config.getMaxUsers(); i++)
+						addRandomUser(roadModel, r, simulator);
 				}
 				
-				// Per station:
-				for(Station s : getStations()) {
-
-					// Update strengths and remove expired roadsigns.
-					ArrayList<RoadSign> toRemoveRs = new ArrayList<>();
-					for(RoadSign rs : s.getRoadsigns()) {
-						double str = rs.getStrength();
-						
-						if(str < 0.001) {
-							toRemoveRs.add(rs);
-						} else {
-							rs.setStrength(str/2);
-						}
-					}
-					s.getRoadsigns().removeAll(toRemoveRs);
-					
-					// Remove expired reservations
-					ArrayList<Reservation> toRemoveRes = new ArrayList<>();
-					for(Reservation r : s.getReservations()) {
-						if(r.getExpirationTime() < timeLapse.getTime() && s.getPod() == null) {
-							toRemoveRes.add(r);
-						}
-					}
-					s.getReservations().removeAll(toRemoveRes);
-					
-					// For each user currently at a station: send out feasibility ants pointing towards the station that the user is at.
-					if(!s.getPassengers().isEmpty() && s.getPod() == null) {
-						for(int i = 0; i < s.getPassengers().size(); i++) {
-							RoadSign rs = new RoadSign();
-							rs.setEndStation(s);
-							s.receiveRoadSignAnt(rs);
-						}
-					}
-				}		
+				// Assign the waiting users to the available pods once per dispatch window, if there is a central dispatcher.
+				if(context.getDispatcher() != null && timeLapse.getTime() >= nextDispatch) {
+					nextDispatch = timeLapse.getTime() + config.getDispatchWindow();
+					context.getDispatcher().dispatch(getPods(), timeLapse.getTime());
+				}
+				
+				// Update the stations: per region, on the workers of the station phase, if the stations are partitioned.
+				// The central dispatcher doesn't need roadsigns.
+				if(stationPhase != null)
+					stationPhase.run(timeLapse.getTime(), context.getDispatcher() == null);
+				else
+					tickStations(context, getStations(), timeLapse.getTime(), context.getDispatcher() == null);
 		}			
 			@Override
 			public void afterTick(TimeLapse timeLapse) {}
 		});
-				
-		simulator.start();
-	}
-
-	/**
-	 * Add two stations to each others neighbour list, but only if they're not already in there.
-	 * 
-	 * @param s1 - Station one
-	 * @param s2 - Station two
-	 */
-	private void makeNeighbours(Station s1, Station s2) {
-		if(!s1.getNeighbours().contains(s2))
-			s1.getNeighbours().add(s2);	
-		if(!s2.getNeighbours().contains(s1))
-			s2.getNeighbours().add(s1);	
+		
+		// Sample the state of the simulation after every pod has ticked, if requested.
+		if(telemetryResults != null) {
+			telemetry = new TelemetryProbe(context, getStations(), getPods(), telemetryInterval, telemetryResults, detailedTelemetry);
+			simulator.addTickListener(telemetry);
+		}
+		
+		return simulator;
 	}
 
 	/**
-	 * Set the loading dock that's connected to a station, but only if it's not already set.
+	 * Write the results of this run as a record.
 	 * 
-	 * @param s - The station
-	 * @param d - The loading dock
+	 * @param results - The writer of the results
 	 */
-	private void addLoadingDock(Station s, LoadingDock d) {
-		if(!s.getLoadingDocks().contains(d))
-			s.getLoadingDocks().add(d);
+	private void writeResults(ResultsWriter results) {
+		try {
+			results.writeRun(new RunResult(getContext().getConfiguration(), getContext().getUsersOnTime(), getContext().getDelays()));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
 	/**
-	 * Add a neighbour to the list of neighbours in a loading dock, but only if it's not already in there.
+	 * Update the stations at the end of a tick, on the thread of the simulator: remove the roadsigns that have become too weak
+	 * and the expired reservations, and let every station where users are waiting send out road sign ants.
+	 * A StationPhase does the same per region.
 	 * 
-	 * @param d
-	 * @param s
+	 * @param context - The context of the simulation
+	 * @param stations - The stations
+	 * @param time - The current time
+	 * @param roadsigns - Whether road sign ants are sent out at all
 	 */
-	private void addNeighbour(LoadingDock d, Station s) {
-		if(!d.getNeighbours().contains(s))
-			d.getNeighbours().add(s);		
+	static void tickStations(SimulationContext context, List<Station> stations, long time, boolean roadsigns) {
+		// Remove the roadsigns that have become too weak. Their strength decays without being updated each tick.
+		context.getRoadSignExpiry().evict(time);
+		
+		// Per station:
+		for(Station s : stations) {
+			
+			// Remove expired reservations
+			if(s.getPod() == null)
+				s.getCalendar().expire(time);
+			
+			// If users are waiting at a station: send out one feasibility ant pointing towards that station.
+			// Its strength is the number of waiting users.
+			if(roadsigns && !s.getPassengers().isEmpty() && s.getPod() == null) {
+				RoadSign rs = new RoadSign();
+				rs.setEndStation(s);
+				rs.setStrength(s.getPassengers().size());
+				s.receiveRoadSignAnt(rs, time);
+			}
+		}
 	}
 
 	/**
 	 * Create a GUI for ease of mind.
 	 * 
+	 * @param mode - INTERACTIVE or EXPERIMENTING
 	 * @return The builder-instance used to create the GUI.
 	 */
-	 private static View.Builder createGui() {
-		 if(isEXPERIMENTING()) {
+	 private static View.Builder createGui(ViewMode mode) {
+		 if(mode == ViewMode.EXPERIMENTING) {
 			    View.Builder view = View.builder()	
 			      .withSpeedUp(150)
 			      .withAutoPlay()
@@ -282,11 +394,7 @@ public class PeopleMover {
 	 * @return Station at position p
 	 */
 	private Station getStationAtPoint(Point p) {
-		for(Station s : getStations()) 	
-			if(s.getPosition().equals(p)) 
-				return s;
-		
-		return null;
+		return stationIndex.get(p);
 	}
 	
 	/**
@@ -296,11 +404,7 @@ public class PeopleMover {
 	 * @return LoadingDock at position p
 	 */
 	private LoadingDock getLoadingDockAtPoint(Point p) {
-		for(LoadingDock d : getLoadingDocks())
-			if(d.getPosition().equals(p))
-				return d;
-		
-		return null;
+		return loadingDockIndex.get(p);
 	}
 	
 	/**
@@ -316,23 +420,25 @@ public class PeopleMover {
 		Point startPosition = roadModel.getRandomPosition(r);
 		
 		// Assure that the user does not spawn on a loadingdock, and that the station where it spawns does not have a pod on it.
-		while (Arrays.asList(startPos).contains(startPosition) || getStationAtPoint(startPosition).getPod() != null)
+		while (loadingDockPositions.contains(startPosition) || getStationAtPoint(startPosition).getPod() != null)
 			startPosition = roadModel.getRandomPosition(r);
 		
 		Station start = getStationAtPoint(startPosition);
 
 		// Find a random endposition that is different from the starting position and is not a loadingdock.
 		Point endpos = roadModel.getRandomPosition(r);
-		while(startPosition.equals(endpos) ||  Arrays.asList(startPos).contains(endpos))
+		while(startPosition.equals(endpos) ||  loadingDockPositions.contains(endpos))
 			endpos = roadModel.getRandomPosition(r);
 		
 		// Build a user.
 		User u = new User
 				(Parcel.builder (startPosition, endpos)
-				.buildDTO(), simulator.getCurrentTime() + DELIVERY_DEADLINE, (Station) getStationAtPoint(endpos));
+				.buildDTO(), simulator.getCurrentTime() + getContext().getConfiguration().getDeliveryDeadline(), (Station) getStationAtPoint(endpos));
 		
-		// Add the new user to the station it spawned in.
+		// Add the new user to the station it spawned in, and to the queue of the dispatcher if there is one.
 		start.getPassengers().add(u);
+		if(getContext().getDispatcher() != null)
+			getContext().getDispatcher().submit(u, start);
 		
 		if(DEBUGGING)
 			System.out.println("Added a user to station "+start+" at position "+startPosition+". His destination is the station at position "+endpos);
@@ -349,63 +455,68 @@ public class PeopleMover {
 		return loadingDocks;
 	}
 	
-	public static ArrayList<Double> getDelays() {
-		return delays;
-	}
-	
-	public static int getUsersOnTime() {
-		return usersOnTime;
-	}
-
-	public static void setUsersOnTime(int usersOnTime) {
-		PeopleMover.usersOnTime = usersOnTime;
-	}
-	
 	private ArrayList<Station> getStations() {
 		return stations;
 	}
-	public static boolean isADVANCED_PLANNING() {
-		return ADVANCED_PLANNING;
+	
+	ArrayList<Pod> getPods() {
+		return pods;
 	}
-
-	public static void setADVANCED_PLANNING(boolean aDVANCED_PLANNING) {
-		ADVANCED_PLANNING = aDVANCED_PLANNING;
+	
+	public SimulationContext getContext() {
+		return context;
 	}
 
-	public static double getSPAWN_RATE() {
-		return SPAWN_RATE;
+	private void setContext(SimulationContext context) {
+		this.context = context;
 	}
-
-	public static void setSPAWN_RATE(double sPAWN_RATE) {
-		SPAWN_RATE = sPAWN_RATE;
+	
+	public long getProgressInterval() {
+		return progressInterval;
 	}
 
-	public static int getMAX_USERS() {
-		return MAX_USERS;
+	public void setProgressInterval(long progressInterval) {
+		this.progressInterval = progressInterval;
 	}
 
-	public static void setMAX_USERS(int mAX_USERS) {
-		MAX_USERS = mAX_USERS;
+	public int getDecisionThreads() {
+		return decisionThreads;
 	}
 
-	public static int getDELIVERY_DEADLINE() {
-		return DELIVERY_DEADLINE;
+	/**
+	 * Let the pods prepare their decisions in parallel, see DecisionPhase.
+	 * 
+	 * @param decisionThreads - The number of threads. Below 2, every pod decides during its own tick.
+	 */
+	public void setDecisionThreads(int decisionThreads) {
+		this.decisionThreads = decisionThreads;
 	}
 
-	public static void setDELIVERY_DEADLINE(int dELIVERY_DEADLINE) {
-		DELIVERY_DEADLINE = dELIVERY_DEADLINE;
+	public int getRegions() {
+		return regions;
 	}
 
-	public static void setDelays(ArrayList<Double> delays) {
-		PeopleMover.delays = delays;
-	}
-	
-	public static boolean isEXPERIMENTING() {
-		return EXPERIMENTING;
+	/**
+	 * Split the stations into regions that are each updated on their own thread, see StationPhase.
+	 * This doesn't touch the pods: they still tick one after the other, see setDecisionThreads to prepare their decisions in parallel.
+	 * 
+	 * @param regions - The number of regions. Below 2, the stations are updated on the thread of the simulator.
+	 */
+	public void setRegions(int regions) {
+		this.regions = regions;
 	}
 
-	public static void setEXPERIMENTING(boolean eXPERIMENTING) {
-		EXPERIMENTING = eXPERIMENTING;
+	/**
+	 * Sample the state of the simulation at a fixed interval of simulated time, see TelemetryProbe.
+	 * 
+	 * @param telemetryResults - Where the samples are written to
+	 * @param telemetryInterval - The simulated time between two samples
+	 * @param detailed - Whether the samples hold the values of every station and pod, or only their totals
+	 */
+	public void setTelemetry(ResultsWriter telemetryResults, long telemetryInterval, boolean detailed) {
+		this.telemetryResults = telemetryResults;
+		this.telemetryInterval = telemetryInterval;
+		this.detailedTelemetry = detailed;
 	}
 }
 
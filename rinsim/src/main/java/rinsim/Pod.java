@@ -2,10 +2,10 @@ package rinsim;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
 
@@ -20,7 +20,8 @@ import com.github.rinde.rinsim.util.TimeWindow;
 class Pod extends Vehicle {
 	
 	// Number of hops the exploration ants are maximally going to take before being returned. 
-	private static final int START_HOP_COUNT = 10;
+	// A destination further away can't be reached by a pod in one route, see Dispatcher.
+	static final int START_HOP_COUNT = 10;
 	// The reservation time at an end station.
 	private static final long END_STATION_TIME = 999999999999999999L;
 	// The pod speed.
@@ -31,14 +32,29 @@ class Pod extends Vehicle {
 	private static final double BATTERY_GAIN = 0.5;
 	// The threshold  on which the pod will go recharge.
 	private static final double BATTERY_THRESHOLD = 50;
+	// The time between two decisions of an idle pod.
+	private static final long REFRESH_INTERVAL = 90000;
+	// The number of (start, destination) pairs for which the intentions are kept, to be used again at a next refresh.
+	private static final int CACHED_ROUTES = 32;
+	// Kept intentions are replaced by a new exploration after this time, even when they're still feasible.
+	private static final long ROUTE_LIFETIME = 1800000; // 30 minutes
 	
 	
 	// List of reservations for which the pod is currently routing.
 	private ArrayList<Reservation> desire = new ArrayList<>();
-	// List of Maps that show each earliest reservation time per station. This is used to determine the desire (cfr BDI model)
-	private ArrayList<LinkedHashMap<Station, Long>> intentions = new ArrayList<LinkedHashMap<Station, Long>>(); private ArrayList<User> passengers = new ArrayList<>();
+	// List of paths that show each earliest reservation time per station. This is used to determine the desire (cfr BDI model)
+	private ArrayList<ExplorationPath> intentions = new ArrayList<ExplorationPath>(); private ArrayList<User> passengers = new ArrayList<>();
 	// List of destinations that have been tried, but for which no suitable route was found or the destination is unavailable.
-	private ArrayList<Station> failedDestinations = new ArrayList<>();
+	private HashSet<Station> failedDestinations = new HashSet<>();
+	// The intentions found by the most recent explorations, per start station and destination (see findIntentions).
+	private LinkedHashMap<Long, KeptRoutes> routes = new LinkedHashMap<Long, KeptRoutes>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, KeptRoutes> eldest) {
+			return size() > CACHED_ROUTES;
+		}
+	};
 	
 	
 	private double battery = 100;
@@ -48,22 +64,35 @@ class Pod extends Vehicle {
 	private TimeWindow currentWindow = null;
 	
 	private long lastRefresh = 0;
+	// The user a central Dispatcher has sent this pod to, and the station that user waits at, if any.
+	private User assignment = null;
+	private Station assignedStation = null;
+	// Whether the pod has already waited one refresh interval for an assignment.
+	private boolean waitedForAssignment = false;
+	// The decision that a DecisionPhase prepared for the current tick: its time, whether the pod waits and the route to reserve.
+	private long preparedTime = -1;
+	private boolean preparedWaiting = false;
+	private ExplorationPath preparedRoute = null;
+	// Whether the route that is decided on is kept as the prepared route, instead of being reserved at once.
+	private boolean preparing = false;
+	private SimulationContext context;
 		
-	Random r = new Random();
+	Random r;
 	
 	
-	protected Pod(Point startPos, int cap, LoadingDock start) {
+	protected Pod(Point startPos, int cap, LoadingDock start, long seed, SimulationContext context) {
 		super(VehicleDTO.builder()
 				.capacity(cap)
 				.startPosition(startPos)
 				.speed(SPEED)
 				.build());
 		setCurrentLoadingDock(start);
+		setContext(context);
+		r = new Random(seed);
 	}
 
 	@Override
 	protected void tickImpl(TimeLapse time) {
-		boolean improvedRouting = false;
 		RoadModel rm = getRoadModel();
 		PDPModel pm = getPDPModel();
 		
@@ -110,143 +139,15 @@ class Pod extends Vehicle {
 		// Only do this each 1.5s instead of every tick for performance.
 		
 		long currentTime = time.getTime();
-		if(getDesire().isEmpty() && movingQueue.isEmpty() && currentTime - getLastRefresh() > 90000) {
-			Station dest = null;
-			setLastRefresh(currentTime);
-
-			// If a certain threshold is reached, start moving towards a loadingdock.
-			if(getBattery() < BATTERY_THRESHOLD && getPassengers().isEmpty()) {
-				if(getCurrentStation().getLoadingDocks().isEmpty())
-					dest = null;
-				else {
-					movingQueue.add(getCurrentStation().getLoadingDocks().get(0).getPosition());
-					return;
-				}
-			}
-			
-			// Else if there are passengers at the current station: get the one that arrived first and explore to his destination.
-			else if(!currentStation.getPassengers().isEmpty()) {
-				
-				// If we're using the optimized task planning:
-				if(PeopleMover.ADVANCED_PLANNING) {
-					
-					// Clear the current list of intentions (these are outdated).
-					getIntentions().clear();
-					
-					// Send out exploration ants for each passenger at the current station.
-					for(User u : getCurrentStation().getPassengers())
-						currentStation.receiveExplorationAnt(new LinkedHashMap<Station,Long>(), u.getDestination(), START_HOP_COUNT, this, time.getTime());
-					
-					// Find the best route out of the newly found intentions.
-					LinkedHashMap<Station, Long> curBest = findBestIntentionAdvanced();
-					
-					if(curBest != null) {
-						if(PeopleMover.DEBUGGING) {
-							System.out.print("The pod has determined the most optimal route to be: (");
-							for(Station s: curBest.keySet()) {
-								System.out.print(s.getPosition()+ ", ");
-							}
-							System.out.println("). Making reservations now...");
-						}
-						
-						// Make it the desire, and let the remainder of this method know that we've already done this.
-						
-						
-						makeReservations(curBest);
-						improvedRouting = true;
-					} else {
-						// If no intentions were found because of destination unavailability: return
-						if(PeopleMover.DEBUGGING) 
-							System.err.println("The pod at " + rm.getPosition(this) + " was unable to find intentions using the destination of the passengers"
-									+ " at the station.");
-						
-						return;
-					}
-				// If we're using the FCFS task planning:	
-				} else {
-					User u = currentStation.getPassengers().get(0);
-					dest = u.getDestination();
-					if(PeopleMover.DEBUGGING)
-						System.out.println("Pod "+this+" has sent out exploration ants using the destination " + dest +" at " + 
-								dest.getPosition() + " of a passenger.");
-				}				
-			}
-			// If there are no passengers but there are roadsigns: explore using the most prominent roadsign.
-			else if(currentStation.getPassengers().isEmpty() && !currentStation.getRoadsigns().isEmpty()) {
-				ArrayList<RoadSign> rs = currentStation.getRoadsigns();
-				Collections.sort(rs);
-				
-				// Select the most prominent roadsign that has not yet lead to finding no intentions (if such roadsign exists).
-				for(RoadSign sign : rs) {
-					if(!getFailedDestinations().contains(sign.getEndStation())) {
-						dest = sign.getEndStation();
-						break;
-					}
-				} 
-				
-				// If no such roadsign was found, pick a random neighbour to resolve deadlock.
-				if(dest == null) {
-					dest = getRandomNeighbour();
-					
-					if(PeopleMover.DEBUGGING)
-						System.out.println("Pod at location " + rm.getPosition(this) + " tried to follow a roadsign, but was unable to. It's now routing towards "
-								 + dest +" at " + dest.getPosition() + ".");
-				}
-				
-				if(PeopleMover.DEBUGGING)
-					System.out.println("Pod "+this+" has sent out exploration ants using the roadsign "+rs.get(0)+" which points to " + dest 
-							+ " at " +dest.getPosition()+". He's currently at " + rm.getPosition(this));
-			// Else: just try to get to a random neighbour and hope there's something to do there.
-			}  else {
-				dest = getRandomNeighbour();
-				
-				if(PeopleMover.DEBUGGING)
-					System.out.println("Pod "+this+" has sent out exploration ants to a random neighbour " + dest +" at " + 
-							dest.getPosition() + ". He's currently at " + rm.getPosition(this));
-			}
-
-			
-			// Send out the ants to the destination selected above, fetch the intentions to the destination and 
-			// make the shortest one in size the desire of this pod.
-			// Only do this when the improved task planning hasn't been used this tick.
-			if(dest != currentStation && !improvedRouting) {
-				
-				// Clear the current intentions, and provide the ant to the first station (the one this pod is currently on).
-				// This will process, and fill up the intentions.
-				getIntentions().clear();
-				currentStation.receiveExplorationAnt(new LinkedHashMap<Station,Long>(), dest, START_HOP_COUNT, this, time.getTime());
-				
-				// If atleast one intention has been found:
-				if(!getIntentions().isEmpty()) {
-					
-					// Reset the list of failed destinations, as we're now moving...
-					getFailedDestinations().clear();
-					
-					// Find the best intention.
-					LinkedHashMap<Station, Long> curBest = findBestIntentionBasic();
-					
-					if(PeopleMover.DEBUGGING) {
-						System.out.print("The best intention is: (");
-						for(Entry<Station, Long> e: curBest.entrySet()) {
-							System.out.print(e.getKey()+ ", " + e.getValue()+"; ");
-						}
-						System.out.println("). Making reservations now...");
-					}
-					
-					// Make reservations for the best intention.
-					makeReservations(curBest);
-					
-				// If no intentions had been found and there are no passengers at the current station: add this destination to the failed list.
-				} else if (currentStation.getPassengers().isEmpty()){
-					if(PeopleMover.DEBUGGING) 
-						System.err.println("The pod at " + rm.getPosition(this) + " was unable to find intentions outwards to " + dest.getPosition() +".");
-					getFailedDestinations().add(dest);
-					return;
-				}
-					
-			}
-			
-			
+		if(preparedTime == currentTime) {
+			if(commitDecision(time))
+				return;
+		} else if(getDesire().isEmpty() && movingQueue.isEmpty() && currentTime - getLastRefresh() > REFRESH_INTERVAL) {
+			long start = AntMetrics.start(AntMetrics.Probe.DECISION);
+			boolean waiting = decide(time);
+			AntMetrics.stop(AntMetrics.Probe.DECISION, start, getIntentions().size());
+			if(waiting)
+				return;
 		}
 		
 		// Remove users that have arrived.
@@ -255,12 +156,7 @@ class Pod extends Vehicle {
 			if(u.getDestination() == currentStation) {
 				toRemove.add(u);
 				pm.deliver(this, u, time);
-				
-				double delay = time.getTime() - u.getDeadline();
-				if(delay > 0)
-					PeopleMover.getDelays().add(delay);
-				else
-					PeopleMover.setUsersOnTime(PeopleMover.getUsersOnTime() + 1);
+				getContext().registerDelivery(u, time.getTime());
 				
 				if(PeopleMover.DEBUGGING) {
 					System.out.print("Ik zie een driekwartsbroek... User with destination " + u.getDeliveryLocation() + "has arrived at "
@@ -287,6 +183,8 @@ class Pod extends Vehicle {
 		for(User us : toEmbark) {
 			pm.pickup(this, us, time);
 			currentStation.embarkUser(us);
+			if(us == getAssignment())
+				assign(null, null);
 			if(PeopleMover.DEBUGGING)
 				System.out.println("Picking up " + us + " at " + rm.getPosition(this) + "amount of users left: "+ getCurrentStation().getPassengers().size());
 		}
@@ -307,13 +205,284 @@ class Pod extends Vehicle {
 		}
 	}
 
+	/**
+	 * Decide where an idle pod goes next: to a loading dock, to the destinations of the passengers at its station,
+	 * to the strongest roadsign or to a random neighbour. Reservations are made for the best route that is found.
+	 * 
+	 * @param time - The current time
+	 * @return boolean - True if the pod should wait for the next tick, false if it can go on to deliver and embark users
+	 */
+	private boolean decide(TimeLapse time) {
+		boolean improvedRouting = false;
+		RoadModel rm = getRoadModel();
+		long currentTime = time.getTime();
+		Station dest = null;
+		setLastRefresh(currentTime);
+
+		// If a certain threshold is reached, start moving towards a loadingdock.
+		if(getBattery() < BATTERY_THRESHOLD && getPassengers().isEmpty()) {
+			assign(null, null);
+			LoadingDock dock = getCurrentStation().getLoadingDock();
+			if(dock == null)
+				dest = null;
+			else {
+				movingQueue.add(dock.getPosition());
+				return true;
+			}
+		}
+		
+		// Else if a central dispatcher assigns the users: go to the assigned user, and from there to his destination.
+		else if(getContext().getDispatcher() != null) {
+			if(getAssignment() != null && !getAssignedStation().getPassengers().contains(getAssignment()))
+				assign(null, null);
+			
+			if(getAssignment() != null) {
+				dest = getAssignedStation() == currentStation ? getAssignment().getDestination() : getAssignedStation();
+				waitedForAssignment = false;
+			// Without an assignment, wait one refresh interval for the dispatcher. If none comes, move on to a random neighbour,
+			// so that the pod doesn't keep its station blocked for other pods.
+			} else if(!waitedForAssignment) {
+				waitedForAssignment = true;
+				return true;
+			} else {
+				dest = getRandomNeighbour();
+				waitedForAssignment = false;
+			}
+		}
+		// Else if there are passengers at the current station: get the one that arrived first and explore to his destination.
+		else if(!currentStation.getPassengers().isEmpty()) {
+			
+			// If we're using the optimized task planning:
+			if(getContext().getConfiguration().isAdvancedPlanning()) {
+				
+				// Clear the current list of intentions (these are outdated).
+				getIntentions().clear();
+				
+				// Plan a route along the destinations of several passengers at once, see RoutePlanner.
+				ExplorationPath curBest = new RoutePlanner(this, currentTime).plan(getCurrentStation().getPassengers());
+				if(curBest != null) {
+					receiveExplorationResult(curBest);
+				} else {
+					// If no route could be planned: send out exploration ants for each passenger at the current station,
+					// and find the best route out of the newly found intentions.
+					for(User u : getCurrentStation().getPassengers())
+						findIntentions(u.getDestination(), currentTime);
+					curBest = findBestIntentionAdvanced();
+				}
+				
+				if(curBest != null) {
+					if(PeopleMover.DEBUGGING)
+						System.out.println("The pod has determined the most optimal route to be: " + curBest + ". Making reservations now...");
+					
+					// Make it the desire, and let the remainder of this method know that we've already done this.
+					
+					
+					reserve(curBest);
+					improvedRouting = true;
+				} else {
+					// If no intentions were found because of destination unavailability: return
+					if(PeopleMover.DEBUGGING) 
+						System.err.println("The pod at " + rm.getPosition(this) + " was unable to find intentions using the destination of the passengers"
+								+ " at the station.");
+					
+					return true;
+				}
+			// If we're using the FCFS task planning:	
+			} else {
+				User u = currentStation.getPassengers().get(0);
+				dest = u.getDestination();
+				if(PeopleMover.DEBUGGING)
+					System.out.println("Pod "+this+" has sent out exploration ants using the destination " + dest +" at " + 
+							dest.getPosition() + " of a passenger.");
+			}				
+		}
+		// If there are no passengers but there are roadsigns: explore using the most prominent roadsign.
+		else if(currentStation.getPassengers().isEmpty() && !currentStation.getRoadsigns().isEmpty()) {
+			// Select the most prominent roadsign that has not yet lead to finding no intentions (if such roadsign exists).
+			RoadSign sign = currentStation.getRoadsigns().getStrongest(getFailedDestinations());
+			if(sign != null)
+				dest = sign.getEndStation();
+			
+			// If no such roadsign was found, pick a random neighbour to resolve deadlock.
+			if(dest == null) {
+				dest = getRandomNeighbour();
+				
+				if(PeopleMover.DEBUGGING)
+					System.out.println("Pod at location " + rm.getPosition(this) + " tried to follow a roadsign, but was unable to. It's now routing towards "
+							 + dest +" at " + dest.getPosition() + ".");
+			}
+			
+			if(PeopleMover.DEBUGGING)
+				System.out.println("Pod "+this+" has sent out exploration ants using the roadsign "+sign+" which points to " + dest 
+						+ " at " +dest.getPosition()+". He's currently at " + rm.getPosition(this));
+		// Else: just try to get to a random neighbour and hope there's something to do there.
+		}  else {
+			dest = getRandomNeighbour();
+			
+			if(PeopleMover.DEBUGGING)
+				System.out.println("Pod "+this+" has sent out exploration ants to a random neighbour " + dest +" at " + 
+						dest.getPosition() + ". He's currently at " + rm.getPosition(this));
+		}
+
+		
+		// Send out the ants to the destination selected above, fetch the intentions to the destination and 
+		// make the shortest one in size the desire of this pod.
+		// Only do this when the improved task planning hasn't been used this tick.
+		if(dest != currentStation && !improvedRouting) {
+			
+			// Clear the current intentions, and find the intentions from the station this pod is currently on.
+			getIntentions().clear();
+			findIntentions(dest, currentTime);
+			
+			// If atleast one intention has been found:
+			if(!getIntentions().isEmpty()) {
+				
+				// Reset the list of failed destinations, as we're now moving...
+				getFailedDestinations().clear();
+				
+				// Find the best intention.
+				ExplorationPath curBest = findBestIntentionBasic();
+				
+				if(PeopleMover.DEBUGGING)
+					System.out.println("The best intention is: " + curBest + ", arriving at " + curBest.getTime() + ". Making reservations now...");
+				
+				// Make reservations for the best intention.
+				reserve(curBest);
+				
+			// If no intentions were found towards an assigned user or his destination: give the user back to the dispatcher,
+			// so that it can be assigned to another pod.
+			} else if(getAssignment() != null) {
+				assign(null, null);
+				return true;
+			
+			// If no intentions had been found and there are no passengers at the current station: add this destination to the failed list.
+			} else if (currentStation.getPassengers().isEmpty()){
+				if(PeopleMover.DEBUGGING) 
+					System.err.println("The pod at " + rm.getPosition(this) + " was unable to find intentions outwards to " + dest.getPosition() +".");
+				getFailedDestinations().add(dest);
+				return true;
+			}
+				
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether the pod is going to decide where to go during the tick at the given time, and can do so in a DecisionPhase.
+	 * A pod that has to recharge decides during its own tick, since it starts moving at once.
+	 * 
+	 * @param currentTime - The time of the tick
+	 * @return boolean
+	 */
+	public boolean isDecisionDue(long currentTime) {
+		return getCurrentStation() != null && getCurrentLoadingDock() == null && getDesire().isEmpty() && movingQueue.isEmpty()
+				&& currentTime - getLastRefresh() > REFRESH_INTERVAL && getBattery() > 0
+				&& !(getBattery() < BATTERY_THRESHOLD && getPassengers().isEmpty());
+	}
+	
+	/**
+	 * Decide where to go, without reserving anything: the route is kept until the tick of this pod (see DecisionPhase).
+	 * Only the state of this pod is changed, so the pods can prepare their decisions at the same time.
+	 * 
+	 * @param time - The time of the tick
+	 */
+	public void prepareDecision(TimeLapse time) {
+		preparing = true;
+		long start = AntMetrics.start(AntMetrics.Probe.DECISION);
+		preparedWaiting = decide(time);
+		AntMetrics.stop(AntMetrics.Probe.DECISION, start, getIntentions().size());
+		preparing = false;
+		preparedTime = time.getTime();
+	}
+	
+	/**
+	 * Reserve the route of a prepared decision. If a pod that ticked before this one has reserved part of it in the meantime,
+	 * the reservation times along the route have changed: the decision is then made again, now that those reservations are known.
+	 * 
+	 * @param time - The time of the tick
+	 * @return boolean - True if the pod should wait for the next tick, false if it can go on to deliver and embark users
+	 */
+	private boolean commitDecision(TimeLapse time) {
+		ExplorationPath route = preparedRoute;
+		preparedTime = -1;
+		preparedRoute = null;
+		if(route == null)
+			return preparedWaiting;
+		
+		ExplorationPath retimed = ExplorationEngine.retime(route, this, time.getTime());
+		boolean unchanged = retimed != null;
+		for(ExplorationPath p = route, q = retimed; unchanged && p != null; p = p.getParent(), q = q.getParent())
+			unchanged = p.getTime() == q.getTime();
+		if(unchanged) {
+			makeReservations(route);
+			return preparedWaiting;
+		}
+		
+		long start = AntMetrics.start(AntMetrics.Probe.DECISION);
+		boolean waiting = decide(time);
+		AntMetrics.stop(AntMetrics.Probe.DECISION, start, getIntentions().size());
+		return waiting;
+	}
+	
+	/**
+	 * Make reservations for a route, or keep it as the prepared route while preparing a decision.
+	 * 
+	 * @param route - The route
+	 */
+	private void reserve(ExplorationPath route) {
+		if(preparing)
+			preparedRoute = route;
+		else
+			makeReservations(route);
+	}
+
+	/**
+	 * Add the intentions from the current station to a destination to the intentions list.
+	 * The intentions found by an earlier exploration are used again if they haven't expired: each is retimed against the
+	 * current reservations, and kept if it's still feasible and takes no longer than when it was found.
+	 * Only if none of them is left, exploration ants are sent out and the intentions they find are kept instead.
+	 * 
+	 * @param dest - The destination. If this is null, the pod is trying to route to a loadingdock.
+	 * @param currentTime - The current time
+	 */
+	private void findIntentions(Station dest, long currentTime) {
+		Long key = ((long) currentStation.getId() << 32) | (dest == null ? 0xffffffffL : dest.getId());
+		KeptRoutes kept = routes.get(key);
+		if(kept != null && currentTime - kept.exploredAt <= ROUTE_LIFETIME) {
+			boolean found = false;
+			for(int i = 0; i < kept.intentions.length; i++) {
+				ExplorationPath intention = ExplorationEngine.retime(kept.intentions[i], this, currentTime);
+				if(intention != null && intention.getTime() - intention.getStartTime() <= kept.durations[i]) {
+					receiveExplorationResult(intention);
+					found = true;
+				}
+			}
+			if(found)
+				return;
+		}
+		
+		int first = getIntentions().size();
+		currentStation.receiveExplorationAnt(dest, START_HOP_COUNT, this, currentTime);
+		int found = getIntentions().size() - first;
+		if(found == 0) {
+			routes.remove(key);
+			return;
+		}
+		kept = new KeptRoutes(found, currentTime);
+		for(int i = 0; i < found; i++) {
+			kept.intentions[i] = getIntentions().get(first + i);
+			kept.durations[i] = kept.intentions[i].getTime() - kept.intentions[i].getStartTime();
+		}
+		routes.put(key, kept);
+	}
+
 	/**
 	 * Find the route that can take the most users (based on the users at the current station) at once.
 	 * 
-	 * @return LinkedHashMap<Station, Long> = stations and earliest possible reservation start times for that station.
+	 * @return ExplorationPath = stations and earliest possible reservation start times for that station.
 	 */
-	private LinkedHashMap<Station, Long> findBestIntentionAdvanced() {
-		LinkedHashMap<Station, Long> best = null;
+	ExplorationPath findBestIntentionAdvanced() {
+		ExplorationPath best = null;
 		int bestNumPass = 0;
 		long deliveryTime = Long.MAX_VALUE;
 		ArrayList<Station> passengerDestinations = new ArrayList<>();
@@ -324,9 +493,9 @@ class Pod extends Vehicle {
 		}
 		
 		// Determine the best intention.
-		for(LinkedHashMap<Station, Long> intention : getIntentions()) {
+		for(ExplorationPath intention : getIntentions()) {
 			int numPass = calculateDestinationsOnRoute(intention, passengerDestinations);
-			long delivery = intention.values().iterator().next();
+			long delivery = intention.getStartTime();
 			if((numPass > bestNumPass) || (numPass == bestNumPass && delivery < deliveryTime)) {
 				bestNumPass = numPass;
 				deliveryTime = delivery;
@@ -340,20 +509,17 @@ class Pod extends Vehicle {
 	/**
 	 * Find the quickest route that can take the user that arrived first in the current station.
 	 * 
-	 * @return LinkedHashMap<Station, Long> = stations and earliest possible reservation start times for that station.
+	 * @return ExplorationPath = stations and earliest possible reservation start times for that station.
 	 */
-	private LinkedHashMap<Station, Long> findBestIntentionBasic() {
+	ExplorationPath findBestIntentionBasic() {
 		
-		LinkedHashMap<Station, Long> curBest = new LinkedHashMap<>();
+		ExplorationPath curBest = null;
 		long BestTime = Long.MAX_VALUE;
 		
 		// For each intention...
-		for(LinkedHashMap<Station, Long> i : getIntentions()) {
-			// Iterate through the intention to get the latest reservation time.
-			Iterator<Long> it = i.values().iterator();
-			long time = it.next();
-			while(it.hasNext()) 
-				time = it.next();
+		for(ExplorationPath i : getIntentions()) {
+			// The reservation time at the end of the intention.
+			long time = i.getTime();
 			
 			// If this reservation time is better than the current one, update the results.
 			if(time < BestTime) {
@@ -368,56 +534,51 @@ class Pod extends Vehicle {
 	/**
 	 * Determine the intersection of the provided lists.
 	 * 
-	 * @param intention - LinkedHashMap<Station, Long> = hashmap of stations and their earliest possible reservation times.
+	 * @param intention - ExplorationPath = path of stations and their earliest possible reservation times.
 	 * @param passengerDestinations - ArrayList<Station> = list of passenger destinations for this station.
 	 * @return int n = the number of elements that exist in both lists.
 	 */
-	private int calculateDestinationsOnRoute(LinkedHashMap<Station, Long> intention, ArrayList<Station> passengerDestinations) {
-		ArrayList<Station> rest = new ArrayList<Station>(passengerDestinations);
-		rest.retainAll(intention.keySet());
-		return rest.size();
+	private int calculateDestinationsOnRoute(ExplorationPath intention, ArrayList<Station> passengerDestinations) {
+		int n = 0;
+		for(Station s : passengerDestinations)
+			if(intention.contains(s))
+				n++;
+		return n;
 	}
 
 	/**
 	 * Remove the reservations for the current pod from the current station.
 	 */
 	private void removeCurrentReservation() {
-		ArrayList<Reservation> toRemove = new ArrayList<>();
-		for(Reservation r : currentStation.getReservations())
-			if(r.getPod() == this) {
-				toRemove.add(r);
-			}
-		currentStation.getReservations().removeAll(toRemove);
+		currentStation.getCalendar().remove(this);
 	}
 
 	/**
 	 * Make reservations for the stations that the exploration ants return.
+	 * The path is walked from its last station back to the first one, each reservation lasting until the reservation
+	 * time of the station after it.
 	 * 
 	 * @param curBest - The exploration result
 	 */
-	public void makeReservations(LinkedHashMap<Station, Long> curBest) {
+	public void makeReservations(ExplorationPath curBest) {
 		ArrayList<Reservation> res = new ArrayList<Reservation>();
-		Reservation prev = null;
+		long next = -1;
 		
-		// Initialize a list of empty reservations per station to be passed on and filled in.
-		for(Entry<Station, Long> e : curBest.entrySet()) {
-			
+		// Initialize a list of reservations per station to be passed on and filled in.
+		for(ExplorationPath p = curBest; p != null; p = p.getParent()) {
+			Station prevStation = p.getParent() == null ? null : p.getParent().getStation();
 			Reservation r = null;
 			
-			if(prev != null) {
-				r = new Reservation(e.getKey(), prev.getStation(), null, this, 0);
-				prev.setTime(TimeWindow.create(curBest.get(prev.getStation()), e.getValue()));
-				prev.setExpirationTime(e.getValue());
-			} else {
-				r = new Reservation(e.getKey(), null, null, this, 0);
-			}
+			// The last station is reserved until the pod leaves it again.
+			if(next == -1)
+				r = new Reservation(p.getStation(), prevStation, TimeWindow.create(p.getTime(), p.getTime() + END_STATION_TIME), this, p.getTime());
+			else
+				r = new Reservation(p.getStation(), prevStation, TimeWindow.create(p.getTime(), next), this, next);
 			
-			prev = r;
+			next = p.getTime();
 			res.add(r);			
 		}
-		
-		prev.setTime(TimeWindow.create(curBest.get(prev.getStation()), curBest.get(prev.getStation()) + END_STATION_TIME));
-		prev.setExpirationTime(curBest.get(prev.getStation()));
+		Collections.reverse(res);
 		
 		// Send this list to the current station, which will propagate it for the reservations to be filled in.
 		currentStation.receiveReservationAnt(res);
@@ -433,12 +594,38 @@ class Pod extends Vehicle {
 		setDesire(res);
 	}
 	
+	/**
+	 * Send this pod to a user, on behalf of a central Dispatcher. The pod decides where to go at its next tick.
+	 * 
+	 * @param u - The user
+	 * @param station - The station the user waits at
+	 * @param time - The current time
+	 */
+	public void assign(User u, Station station, long time) {
+		assign(u, station);
+		setLastRefresh(time - REFRESH_INTERVAL - 1);
+	}
+	
+	private void assign(User u, Station station) {
+		this.assignment = u;
+		this.assignedStation = station;
+	}
+	
+	/**
+	 * Check whether the pod can be given an assignment: it waits at a station without a route, and doesn't need to recharge.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isAvailable() {
+		return getCurrentStation() != null && getDesire().isEmpty() && movingQueue.isEmpty() && getBattery() >= BATTERY_THRESHOLD;
+	}
+
 	/**
 	 * Add any of the exploration results to the intentions list.
 	 * 
-	 * @param stations - An arraylist of stations.
+	 * @param stations - A path of stations.
 	 */
-	public void receiveExplorationResult(LinkedHashMap<Station,Long> stations) {
+	public void receiveExplorationResult(ExplorationPath stations) {
 		this.getIntentions().add(stations);
 	}
 	
@@ -448,22 +635,41 @@ class Pod extends Vehicle {
 	 * @return Station neighbour
 	 */
 	private Station getRandomNeighbour() {
-		int n = r.nextInt(currentStation.getNeighbours().size());
-		Station ret = getCurrentStation().getNeighbours().get(n);
+		Topology topology = getContext().getTopology();
+		int[] targets = topology.getTargets();
+		int first = topology.getFirst(currentStation.getId());
+		int degree = topology.getStationLimit(currentStation.getId()) - first;
+		Station ret = topology.getStation(targets[first + r.nextInt(degree)]);
 		
 		// If all neighbours have been tried before: reset the list so they can be tried again.
-		if(getFailedDestinations().containsAll(getCurrentStation().getNeighbours()))
+		boolean allFailed = true;
+		for(int i = first; i < first + degree && allFailed; i++)
+			allFailed = getFailedDestinations().contains(topology.getStation(targets[i]));
+		if(allFailed)
 			getFailedDestinations().clear();
 		
 		// Keep searching until a neighbour has been found that is not in the list.
-		while (getFailedDestinations().contains(ret)) {
-			n = r.nextInt(currentStation.getNeighbours().size());
-			ret = getCurrentStation().getNeighbours().get(n);
-		}
+		while (getFailedDestinations().contains(ret))
+			ret = topology.getStation(targets[first + r.nextInt(degree)]);
 		
 		return ret;
 	}
 
+	/**
+	 * The intentions that were found from a start station to a destination, and how long each of them took at the time.
+	 */
+	private static class KeptRoutes {
+		final ExplorationPath[] intentions;
+		final long[] durations;
+		final long exploredAt;
+		
+		KeptRoutes(int size, long exploredAt) {
+			intentions = new ExplorationPath[size];
+			durations = new long[size];
+			this.exploredAt = exploredAt;
+		}
+	}
+
 	/**
 	 * GETTERS AND SETTERS.
 	 */
@@ -500,11 +706,11 @@ class Pod extends Vehicle {
 		this.passengers = passengers;
 	}
 
-	public ArrayList<LinkedHashMap<Station, Long>> getIntentions() {
+	public ArrayList<ExplorationPath> getIntentions() {
 		return intentions;
 	}
 
-	public void setIntentions(ArrayList<LinkedHashMap<Station, Long>> intentions) {
+	public void setIntentions(ArrayList<ExplorationPath> intentions) {
 		this.intentions = intentions;
 	}
 
@@ -524,6 +730,14 @@ class Pod extends Vehicle {
 		this.currentLoadingDock = currentLoadingDock;
 	}
 
+	public SimulationContext getContext() {
+		return context;
+	}
+
+	public void setContext(SimulationContext context) {
+		this.context = context;
+	}
+
 	public long getLastRefresh() {
 		return lastRefresh;
 	}
@@ -532,11 +746,19 @@ class Pod extends Vehicle {
 		this.lastRefresh = lastRefresh;
 	}
 
-	public ArrayList<Station> getFailedDestinations() {
+	public User getAssignment() {
+		return assignment;
+	}
+
+	public Station getAssignedStation() {
+		return assignedStation;
+	}
+
+	public HashSet<Station> getFailedDestinations() {
 		return failedDestinations;
 	}
 
-	public void setFailedDestinations(ArrayList<Station> failedDestinations) {
+	public void setFailedDestinations(HashSet<Station> failedDestinations) {
 		this.failedDestinations = failedDestinations;
 	}
 }
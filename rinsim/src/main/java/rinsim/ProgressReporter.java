@@ -0,0 +1,49 @@
+package rinsim;
+
+import com.github.rinde.rinsim.core.model.time.TickListener;
+import com.github.rinde.rinsim.core.model.time.TimeLapse;
+
+/**
+ * Prints the progress of a simulation at a fixed interval of simulated time.
+ */
+public class ProgressReporter implements TickListener {
+	
+	private final String name;
+	private final long interval;
+	private final long duration;
+	
+	private long nextReport;
+	private long startWallTime = -1;
+
+	/**
+	 * @param name - The name of the simulation, used as prefix of each report
+	 * @param interval - The simulated time between two reports
+	 * @param duration - The total simulated time of the run, or 0 if unknown
+	 */
+	public ProgressReporter(String name, long interval, long duration) {
+		this.name = name;
+		this.interval = interval;
+		this.duration = duration;
+		this.nextReport = interval;
+	}
+
+	@Override
+	public void tick(TimeLapse timeLapse) {
+		if(startWallTime == -1)
+			startWallTime = System.nanoTime();
+	}
+
+	@Override
+	public void afterTick(TimeLapse timeLapse) {
+		long time = timeLapse.getEndTime();
+		if(time < nextReport)
+			return;
+		nextReport += interval * ((time - nextReport) / interval + 1);
+		
+		double wallSeconds = (System.nanoTime() - startWallTime) / 1e9;
+		String progress = name + ": simulated " + (time / 1000) + " s";
+		if(duration > 0)
+			progress += " of " + (duration / 1000) + " s (" + (100 * time / duration) + "%)";
+		System.out.println(progress + ", " + String.format("%.1f", time / 1000d / wallSeconds) + " simulated seconds per second.");
+	}
+}
@@ -0,0 +1,153 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A part of the graph whose stations are updated by a single worker of the StationPhase: their reservations expire and
+ * their road sign ants are processed there. A region has its own AntQueue and RoadSignExpiry, so its worker never touches
+ * the state of another region. A road sign ant for a station of another region is handed over instead: it's put in the
+ * outgoing buffer for that region, and the other region receives it in the next round of the tick.
+ *
+ * There are two outgoing buffers per region, used in turns: the ants of a round are sent in one buffer while the ants of
+ * the previous round are received from the other. All regions switch buffers at the same time, between two rounds.
+ */
+public class Region {
+
+	private final int index;
+	private final int regions;
+	private final ArrayList<Station> stations;
+	private final AntQueue ants = new AntQueue();
+	private final RoadSignExpiry roadSignExpiry = new RoadSignExpiry();
+	// The ants that are handed over to other regions, per buffer and per region: the list for buffer b and region r is at b * regions + r.
+	private final ArrayList<ArrayList<Handover>> outgoing = new ArrayList<>();
+	// The buffer ants are sent in during the current round.
+	private int buffer = 0;
+	// The number of ants that have been handed over to other regions.
+	private long handovers = 0;
+
+	/**
+	 * @param index - The index of this region among all regions
+	 * @param regions - The number of regions
+	 * @param stations - The stations of this region, in order of their id
+	 */
+	public Region(int index, int regions, ArrayList<Station> stations) {
+		this.index = index;
+		this.regions = regions;
+		this.stations = stations;
+		for(int i = 0; i < 2 * regions; i++)
+			outgoing.add(new ArrayList<Handover>());
+		for(Station s : stations)
+			s.setRegion(this);
+	}
+
+	/**
+	 * Send a road sign ant to a station: to the queue of this region, or to the region of the station.
+	 * An ant that is handed over carries a copy of the roadsign, since this region may still refresh the original.
+	 *
+	 * @param receiver - The station
+	 * @param previous - The RoadSign issued by the previous station
+	 * @param time - The current time
+	 */
+	public void sendRoadSign(Station receiver, RoadSign previous, long time) {
+		if(receiver.getRegion() == this) {
+			ants.sendRoadSign(receiver, previous, time);
+			return;
+		}
+		RoadSign copy = new RoadSign();
+		copy.setEndStation(previous.getEndStation());
+		copy.setHops(previous.getHops());
+		copy.setStrength(previous.getStrength());
+		outgoing.get(buffer * regions + receiver.getRegion().getIndex()).add(new Handover(receiver, copy, time));
+		handovers++;
+	}
+
+	/**
+	 * Start a tick: remove the expired reservations and roadsigns of the stations of this region, and let every station
+	 * where users are waiting send out a road sign ant. The ants are processed as far as they stay in this region.
+	 *
+	 * @param time - The current time
+	 * @param roadsigns - Whether road sign ants are sent out at all
+	 */
+	void start(long time, boolean roadsigns) {
+		roadSignExpiry.evict(time);
+		for(Station s : stations) {
+			if(s.getPod() == null)
+				s.getCalendar().expire(time);
+
+			if(roadsigns && !s.getPassengers().isEmpty() && s.getPod() == null) {
+				RoadSign rs = new RoadSign();
+				rs.setEndStation(s);
+				rs.setStrength(s.getPassengers().size());
+				ants.sendRoadSign(s, rs, time);
+				ants.drain();
+			}
+		}
+	}
+
+	/**
+	 * Switch buffers and receive the ants that all regions handed over to this region in the previous round, in order of
+	 * the region that sent them. Every ant is processed with the ants it causes in this region before the next one is received.
+	 *
+	 * @param all - All regions, in order of their index
+	 */
+	void receive(List<Region> all) {
+		int previous = buffer;
+		buffer = 1 - buffer;
+		for(Region r : all) {
+			ArrayList<Handover> incoming = r.outgoing.get(previous * regions + index);
+			for(Handover h : incoming) {
+				ants.sendRoadSign(h.receiver, h.sign, h.time);
+				ants.drain();
+			}
+			incoming.clear();
+		}
+	}
+
+	/**
+	 * Check whether this region has handed over any ants in the current round.
+	 *
+	 * @return boolean
+	 */
+	boolean hasOutgoing() {
+		for(int r = 0; r < regions; r++)
+			if(!outgoing.get(buffer * regions + r).isEmpty())
+				return true;
+		return false;
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public int getIndex() {
+		return index;
+	}
+
+	public ArrayList<Station> getStations() {
+		return stations;
+	}
+
+	public RoadSignExpiry getRoadSignExpiry() {
+		return roadSignExpiry;
+	}
+
+	public long getHandovers() {
+		return handovers;
+	}
+
+	/**
+	 * A road sign ant on its way to a station of another region.
+	 */
+	private static class Handover {
+		private final Station receiver;
+		private final RoadSign sign;
+		private final long time;
+
+		private Handover(Station receiver, RoadSign sign, long time) {
+			this.receiver = receiver;
+			this.sign = sign;
+			this.time = time;
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * The reservations of a single station, ordered by time window.
+ * Next to the reservations themselves, the calendar keeps the busy periods of the station: the union of all reservation
+ * windows as disjoint blocks. Looking up whether a window is free, or where the next free slot is, only needs the blocks
+ * around the requested time.
+ *
+ * To keep the blocks up to date when a reservation is removed, the calendar also counts how many windows cover each
+ * stretch of time. A removal only has to look at the stretches within its own window: where the count drops to zero,
+ * the block is split or shrunk. Windows without length don't occupy the station.
+ */
+public class ReservationCalendar {
+
+	// Reservations ordered by the start of their time window.
+	private TreeMap<Long, ArrayList<Reservation>> byBegin = new TreeMap<>();
+	// Reservations ordered by the time at which they expire.
+	private TreeMap<Long, ArrayList<Reservation>> byExpiration = new TreeMap<>();
+	// Reservations per pod, in the order they were made.
+	private HashMap<Pod, ArrayList<Reservation>> byPod = new HashMap<>();
+	// Disjoint busy periods: the start of each block mapped onto its end.
+	private TreeMap<Long, Long> blocks = new TreeMap<>();
+	// The number of windows covering each stretch of time: the start of a stretch mapped onto the count up to the next start.
+	// Two successive stretches never have the same count, and the last one has count zero.
+	private TreeMap<Long, Integer> coverage = new TreeMap<>();
+
+	private int size = 0;
+
+	public ReservationCalendar() {}
+
+	/**
+	 * Add a reservation to the calendar.
+	 *
+	 * @param r - The reservation
+	 */
+	public void add(Reservation r) {
+		put(byBegin, r.getTime().begin(), r);
+		put(byExpiration, r.getExpirationTime(), r);
+		ArrayList<Reservation> own = byPod.get(r.getPod());
+		if(own == null) {
+			own = new ArrayList<>();
+			byPod.put(r.getPod(), own);
+		}
+		own.add(r);
+		size++;
+
+		long begin = r.getTime().begin();
+		long end = r.getTime().end();
+		if(begin >= end)
+			return;
+		cover(begin, end, 1);
+
+		// Merge the window with the blocks it overlaps or touches.
+		Entry<Long, Long> before = blocks.floorEntry(begin);
+		if(before != null && before.getValue() >= begin) {
+			begin = before.getKey();
+			end = Math.max(end, before.getValue());
+		}
+		Entry<Long, Long> after = blocks.ceilingEntry(begin);
+		while(after != null && after.getKey() <= end) {
+			end = Math.max(end, after.getValue());
+			blocks.remove(after.getKey());
+			after = blocks.higherEntry(after.getKey());
+		}
+		blocks.put(begin, end);
+	}
+
+	/**
+	 * Remove a reservation from the calendar.
+	 *
+	 * @param r - The reservation
+	 */
+	public void remove(Reservation r) {
+		if(!take(byBegin, r.getTime().begin(), r))
+			return;
+		take(byExpiration, r.getExpirationTime(), r);
+		ArrayList<Reservation> own = byPod.get(r.getPod());
+		own.remove(r);
+		if(own.isEmpty())
+			byPod.remove(r.getPod());
+		size--;
+
+		long begin = r.getTime().begin();
+		long end = r.getTime().end();
+		if(begin >= end)
+			return;
+		split(begin);
+		split(end);
+
+		// Cut the stretches of the window that no other window covers out of the block the window was part of.
+		Entry<Long, Long> block = blocks.floorEntry(begin);
+		blocks.remove(block.getKey());
+		long start = block.getKey();
+		for(Entry<Long, Integer> stretch : coverage.subMap(begin, true, end, false).entrySet()) {
+			stretch.setValue(stretch.getValue() - 1);
+			if(stretch.getValue() == 0) {
+				if(stretch.getKey() > start)
+					blocks.put(start, stretch.getKey());
+				start = coverage.higherKey(stretch.getKey());
+			}
+		}
+		if(block.getValue() > start)
+			blocks.put(start, block.getValue());
+		join(begin);
+		join(end);
+	}
+
+	/**
+	 * Remove all reservations of a pod.
+	 *
+	 * @param pod - The pod
+	 */
+	public void remove(Pod pod) {
+		ArrayList<Reservation> own = byPod.get(pod);
+		if(own == null)
+			return;
+		for(Reservation r : new ArrayList<>(own))
+			remove(r);
+	}
+
+	/**
+	 * Remove all reservations that have expired before the given time.
+	 *
+	 * @param time - The current time
+	 */
+	public void expire(long time) {
+		while(!byExpiration.isEmpty() && byExpiration.firstKey() < time) {
+			for(Reservation r : new ArrayList<>(byExpiration.firstEntry().getValue()))
+				remove(r);
+		}
+	}
+
+	/**
+	 * Find the start of the earliest free slot of the given duration, starting at the given time or later.
+	 * The slot may lie in a gap between existing reservations.
+	 *
+	 * @param time - The earliest time the slot can start
+	 * @param duration - The length of the slot
+	 * @return long - The start of the slot
+	 */
+	public long findFreeSlot(long time, long duration) {
+		long candidate = time;
+		Entry<Long, Long> block = blocks.floorEntry(candidate);
+		if(block != null && block.getValue() > candidate)
+			candidate = block.getValue();
+
+		// Skip the gaps that are too short.
+		block = blocks.higherEntry(candidate);
+		while(block != null && block.getKey() < candidate + duration) {
+			candidate = block.getValue();
+			block = blocks.higherEntry(candidate);
+		}
+		return candidate;
+	}
+
+	/**
+	 * Find the start of the earliest slot, starting at the given time or later, after which no reservations exist.
+	 *
+	 * @param time - The earliest time the slot can start
+	 * @return long - The start of the slot
+	 */
+	public long findOpenSlot(long time) {
+		if(blocks.isEmpty())
+			return time;
+		return Math.max(time, blocks.lastEntry().getValue());
+	}
+
+	/**
+	 * Check whether no reservation overlaps the given window.
+	 *
+	 * @param begin - The start of the window
+	 * @param end - The end of the window
+	 * @return boolean
+	 */
+	public boolean isFree(long begin, long end) {
+		Entry<Long, Long> block = blocks.floorEntry(begin);
+		if(block != null && block.getValue() > begin)
+			return false;
+		block = blocks.higherEntry(begin);
+		return block == null || block.getKey() >= end;
+	}
+
+	/**
+	 * Get the reservation that was made last for a pod.
+	 *
+	 * @param pod - The pod
+	 * @return Reservation, or null if the pod has no reservations in this calendar.
+	 */
+	public Reservation getReservation(Pod pod) {
+		ArrayList<Reservation> own = byPod.get(pod);
+		if(own == null)
+			return null;
+		return own.get(own.size() - 1);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Change the number of windows covering a period.
+	 */
+	private void cover(long begin, long end, int change) {
+		split(begin);
+		split(end);
+		for(Entry<Long, Integer> stretch : coverage.subMap(begin, true, end, false).entrySet())
+			stretch.setValue(stretch.getValue() + change);
+		join(begin);
+		join(end);
+	}
+
+	/**
+	 * Make sure a stretch of coverage starts at the given time.
+	 */
+	private void split(long time) {
+		if(coverage.containsKey(time))
+			return;
+		Entry<Long, Integer> before = coverage.floorEntry(time);
+		coverage.put(time, before == null ? 0 : before.getValue());
+	}
+
+	/**
+	 * Join the stretch that starts at the given time with the one before it, if they have the same count.
+	 */
+	private void join(long time) {
+		Integer count = coverage.get(time);
+		if(count == null)
+			return;
+		Entry<Long, Integer> before = coverage.lowerEntry(time);
+		if(before == null ? count == 0 : before.getValue().equals(count))
+			coverage.remove(time);
+	}
+
+	private static void put(TreeMap<Long, ArrayList<Reservation>> map, long key, Reservation r) {
+		ArrayList<Reservation> rs = map.get(key);
+		if(rs == null) {
+			rs = new ArrayList<>(1);
+			map.put(key, rs);
+		}
+		rs.add(r);
+	}
+
+	private static boolean take(TreeMap<Long, ArrayList<Reservation>> map, long key, Reservation r) {
+		ArrayList<Reservation> rs = map.get(key);
+		if(rs == null)
+			return false;
+		for(Iterator<Reservation> it = rs.iterator(); it.hasNext();) {
+			if(it.next() == r) {
+				it.remove();
+				if(rs.isEmpty())
+					map.remove(key);
+				return true;
+			}
+		}
+		return false;
+	}
+}
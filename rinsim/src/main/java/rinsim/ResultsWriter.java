@@ -0,0 +1,195 @@
+package rinsim;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes machine-readable records to a single file that stays open for a whole sweep, so that all runs share one buffered writer.
+ * Records are written whole and one at a time, so concurrent runs can't interleave them. Every record is flushed as soon
+ * as it's written, so that a tool that follows the file sees each record when it's complete rather than when the run ends.
+ *
+ * Files ending in .csv get comma-separated values with a header line. All records of a CSV file must have the same fields.
+ * Any other file gets JSON lines: one JSON object per line, which may differ per record.
+ * Every record starts with its type: "run" for the results of a run, "telemetry" for a sample of the state of a run,
+ * including the results so far (see TelemetryProbe).
+ */
+public class ResultsWriter implements Closeable {
+
+	private final BufferedWriter output;
+	private final boolean csv;
+	// The header of a CSV file, once it's known.
+	private String header = null;
+
+	/**
+	 * Open a file to append records to. The records appended to an existing CSV file must have the fields of its header.
+	 *
+	 * @param path - The path of the file
+	 */
+	public ResultsWriter(String path) throws IOException {
+		File f = new File(path);
+		csv = path.endsWith(".csv");
+		if(csv && f.exists() && f.length() > 0) {
+			BufferedReader input = new BufferedReader(new FileReader(f));
+			try {
+				header = input.readLine();
+			} finally {
+				input.close();
+			}
+		}
+		output = new BufferedWriter(new FileWriter(f, true));
+	}
+
+	/**
+	 * Write the results of a run.
+	 *
+	 * @param r - The results
+	 */
+	public void writeRun(RunResult r) throws IOException {
+		LinkedHashMap<String, Object> fields = createRecord("run", r.getConfiguration());
+		fields.put("usersOnTime", r.getUsersOnTime());
+		fields.put("usersLate", r.getUsersLate());
+		fields.put("averageDelay", r.getAverageDelay());
+		fields.put("delayDeviation", r.getDelayDeviation());
+		fields.put("delayP50", r.getDelayP50());
+		fields.put("delayP95", r.getDelayP95());
+		fields.put("delayP99", r.getDelayP99());
+		write(fields);
+	}
+
+	/**
+	 * Write a record with the given fields. The values may be numbers, booleans, strings, int or double arrays, or null.
+	 * Arrays become JSON arrays, or values separated by spaces in a CSV file.
+	 *
+	 * @param fields - The names and values of the fields, in order
+	 */
+	public synchronized void write(Map<String, Object> fields) throws IOException {
+		StringBuilder line = new StringBuilder();
+		if(csv) {
+			StringBuilder names = new StringBuilder();
+			for(Map.Entry<String, Object> f : fields.entrySet()) {
+				if(names.length() > 0) {
+					names.append(',');
+					line.append(',');
+				}
+				names.append(f.getKey());
+				appendCsv(line, f.getValue());
+			}
+			if(header == null) {
+				header = names.toString();
+				line.insert(0, header + System.lineSeparator());
+			} else if(!header.equals(names.toString())) {
+				throw new IllegalArgumentException("A CSV file can only hold records with the fields " + header + ", not " + names + ".");
+			}
+		} else {
+			line.append('{');
+			for(Map.Entry<String, Object> f : fields.entrySet()) {
+				if(line.length() > 1)
+					line.append(", ");
+				appendJson(line, f.getKey());
+				line.append(": ");
+				appendJson(line, f.getValue());
+			}
+			line.append('}');
+		}
+		line.append(System.lineSeparator());
+		output.write(line.toString());
+		output.flush();
+	}
+
+	public synchronized void flush() throws IOException {
+		output.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		output.close();
+	}
+
+	/**
+	 * Start a record with its type and the configuration of the run.
+	 */
+	private static LinkedHashMap<String, Object> createRecord(String type, RunConfiguration c) {
+		LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+		fields.put("type", type);
+		fields.put("planning", c.isAdvancedPlanning() ? "advanced" : "basic");
+		fields.put("spawnRate", c.getSpawnRate());
+		fields.put("maxUsers", c.getMaxUsers());
+		fields.put("deliveryDeadline", c.getDeliveryDeadline());
+		fields.put("duration", c.getDuration());
+		fields.put("seed", c.getSeed());
+		fields.put("graphSize", c.getGraphSize());
+		fields.put("fleetSize", c.getFleetSize());
+		fields.put("graphFile", c.getGraphFile());
+		fields.put("dispatchWindow", c.getDispatchWindow());
+		return fields;
+	}
+
+	private static void appendCsv(StringBuilder sb, Object value) {
+		if(value == null || isUndefined(value))
+			return;
+		if(value instanceof int[] || value instanceof double[]) {
+			appendArray(sb, value, " ");
+		} else if(value instanceof String) {
+			String s = (String) value;
+			if(s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+				sb.append(s);
+			} else {
+				sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+			}
+		} else {
+			sb.append(value);
+		}
+	}
+
+	private static void appendJson(StringBuilder sb, Object value) {
+		if(value == null || isUndefined(value)) {
+			sb.append("null");
+		} else if(value instanceof int[] || value instanceof double[]) {
+			sb.append('[');
+			appendArray(sb, value, ", ");
+			sb.append(']');
+		} else if(value instanceof String) {
+			sb.append('"');
+			for(char c : ((String) value).toCharArray()) {
+				if(c == '"' || c == '\\')
+					sb.append('\\').append(c);
+				else if(c < 0x20)
+					sb.append(String.format("\\u%04x", (int) c));
+				else
+					sb.append(c);
+			}
+			sb.append('"');
+		} else {
+			sb.append(value);
+		}
+	}
+
+	private static void appendArray(StringBuilder sb, Object array, String separator) {
+		if(array instanceof int[]) {
+			int[] values = (int[]) array;
+			for(int i = 0; i < values.length; i++) {
+				if(i > 0)
+					sb.append(separator);
+				sb.append(values[i]);
+			}
+		} else {
+			double[] values = (double[]) array;
+			for(int i = 0; i < values.length; i++) {
+				if(i > 0)
+					sb.append(separator);
+				sb.append(values[i]);
+			}
+		}
+	}
+
+	private static boolean isUndefined(Object value) {
+		return (value instanceof Double && (((Double) value).isNaN() || ((Double) value).isInfinite()));
+	}
+}
@@ -1,21 +1,71 @@
 package rinsim;
 
 public class RoadSign implements Comparable<RoadSign>{
+	
+	// The period in which the strength of a roadsign is halved: one tick of the simulator, which keeps its default length.
+	public static final long DECAY_PERIOD = 1000;
+	// The factor with which the strength decays each period.
+	public static final double DECAY = 0.5;
+	// Roadsigns weaker than this are removed.
+	public static final double MIN_STRENGTH = 0.001;
+	
 	private Station endStation = null;
 	private double strength = 1.0d;
+	private long refreshTime = 0;
 	private int hops = 5;
+	// The hops with which the ant was forwarded at the last refresh.
+	private int forwardedHops = 0;
+	private long sequence = 0;
+	// The logarithm of the strength this roadsign would have at time zero, used to order roadsigns.
+	private double rank = 0;
 	
 
 	public RoadSign() {}
 
+	/**
+	 * Compare the strengths of two roadsigns. Both decay at the same rate, so the order does not depend on the current time.
+	 */
 	@Override
 	public int compareTo(RoadSign rs) {
-		if(this.getStrength() > rs.getStrength())
-			return 1;
-		else if(this.getStrength() < rs.getStrength())
-			return -1;
-		else
-			return 0;
+		return Double.compare(this.rank, rs.rank);
+	}
+	
+	/**
+	 * Reset the strength of this roadsign.
+	 * 
+	 * @param strength - The new strength
+	 * @param time - The time of the refresh
+	 */
+	public void refresh(double strength, long time) {
+		setStrength(strength);
+		setRefreshTime(time);
+	}
+	
+	/**
+	 * Get the strength of this roadsign at the given time. It has been halved for every period since the last refresh.
+	 * 
+	 * @param time - The current time
+	 * @return double
+	 */
+	public double getStrength(long time) {
+		long ticks = (time - getRefreshTime()) / DECAY_PERIOD;
+		return getStrength() * Math.pow(DECAY, ticks);
+	}
+	
+	/**
+	 * Get the time at which the strength of this roadsign will drop below MIN_STRENGTH.
+	 * 
+	 * @return long
+	 */
+	public long getExpirationTime() {
+		if(getStrength() < MIN_STRENGTH)
+			return getRefreshTime();
+		long ticks = (long) Math.floor(Math.log(getStrength() / MIN_STRENGTH) / Math.log(1 / DECAY)) + 1;
+		return getRefreshTime() + ticks * DECAY_PERIOD;
+	}
+	
+	private void updateRank() {
+		rank = Math.log(getStrength()) / Math.log(1 / DECAY) + (double) getRefreshTime() / DECAY_PERIOD;
 	}
 
 	/**
@@ -28,6 +78,32 @@ public class RoadSign implements Comparable<RoadSign>{
 
 	public void setStrength(double strength) {
 		this.strength = strength;
+		updateRank();
+	}
+
+	public long getRefreshTime() {
+		return refreshTime;
+	}
+
+	public void setRefreshTime(long refreshTime) {
+		this.refreshTime = refreshTime;
+		updateRank();
+	}
+
+	public int getForwardedHops() {
+		return forwardedHops;
+	}
+
+	public void setForwardedHops(int forwardedHops) {
+		this.forwardedHops = forwardedHops;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
 	}
 
 	public int getHops() {
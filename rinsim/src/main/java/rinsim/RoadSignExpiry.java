@@ -0,0 +1,60 @@
+package rinsim;
+
+import java.util.PriorityQueue;
+
+/**
+ * Time-ordered queue of the moments at which roadsigns become too weak and have to be removed from their station.
+ * A refreshed roadsign is simply scheduled again: its old entry is recognised as outdated when it comes up.
+ */
+public class RoadSignExpiry {
+
+	private PriorityQueue<Entry> queue = new PriorityQueue<>();
+
+	public RoadSignExpiry() {}
+
+	/**
+	 * Schedule the removal of a roadsign, based on its current strength.
+	 *
+	 * @param s - The station that holds the roadsign
+	 * @param rs - The roadsign
+	 */
+	public void schedule(Station s, RoadSign rs) {
+		queue.add(new Entry(s, rs, rs.getExpirationTime()));
+	}
+
+	/**
+	 * Remove all roadsigns that have expired at the given time.
+	 *
+	 * @param time - The current time
+	 */
+	public void evict(long time) {
+		while(!queue.isEmpty() && queue.peek().time <= time) {
+			Entry e = queue.poll();
+
+			// Only remove the roadsign if it hasn't been refreshed since this entry was scheduled.
+			if(e.sign.getExpirationTime() == e.time)
+				e.station.getRoadsigns().remove(e.sign);
+		}
+	}
+
+	public int size() {
+		return queue.size();
+	}
+
+	private static class Entry implements Comparable<Entry> {
+		private final Station station;
+		private final RoadSign sign;
+		private final long time;
+
+		private Entry(Station station, RoadSign sign, long time) {
+			this.station = station;
+			this.sign = sign;
+			this.time = time;
+		}
+
+		@Override
+		public int compareTo(Entry e) {
+			return Long.compare(this.time, e.time);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package rinsim;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * The roadsigns of a single station, indexed by the station they point to and ordered from strongest to weakest.
+ * Roadsigns must be refreshed through this table, so their position in the order stays correct.
+ */
+public class RoadSignTable {
+
+	// Orders roadsigns from strongest to weakest, and by insertion order for equal strengths.
+	private static final Comparator<RoadSign> STRONGEST_FIRST = new Comparator<RoadSign>() {
+		@Override
+		public int compare(RoadSign rs1, RoadSign rs2) {
+			int c = rs2.compareTo(rs1);
+			if(c != 0)
+				return c;
+			return Long.compare(rs1.getSequence(), rs2.getSequence());
+		}
+	};
+
+	private HashMap<Station, RoadSign> byEndStation = new HashMap<>();
+	private TreeSet<RoadSign> byStrength = new TreeSet<>(STRONGEST_FIRST);
+	private long sequence = 0;
+
+	public RoadSignTable() {}
+
+	/**
+	 * Get the roadsign that points to a station.
+	 *
+	 * @param endStation - The station
+	 * @return RoadSign, or null if no such roadsign exists.
+	 */
+	public RoadSign get(Station endStation) {
+		return byEndStation.get(endStation);
+	}
+
+	/**
+	 * Add a roadsign, replacing the one that points to the same station (if any).
+	 *
+	 * @param rs - The roadsign
+	 */
+	public void add(RoadSign rs) {
+		RoadSign old = byEndStation.put(rs.getEndStation(), rs);
+		if(old != null)
+			byStrength.remove(old);
+		rs.setSequence(sequence++);
+		byStrength.add(rs);
+	}
+
+	/**
+	 * Reset the strength of a roadsign in this table.
+	 *
+	 * @param rs - The roadsign
+	 * @param strength - The new strength
+	 * @param time - The time of the refresh
+	 */
+	public void refresh(RoadSign rs, double strength, long time) {
+		byStrength.remove(rs);
+		rs.refresh(strength, time);
+		byStrength.add(rs);
+	}
+
+	/**
+	 * Remove a roadsign from this table.
+	 *
+	 * @param rs - The roadsign
+	 * @return boolean - Whether the roadsign was in this table.
+	 */
+	public boolean remove(RoadSign rs) {
+		if(byEndStation.get(rs.getEndStation()) != rs)
+			return false;
+		byEndStation.remove(rs.getEndStation());
+		byStrength.remove(rs);
+		return true;
+	}
+
+	/**
+	 * Get the strongest roadsign that does not point to one of the excluded stations.
+	 *
+	 * @param excluded - The stations that should not be pointed to
+	 * @return RoadSign, or null if no such roadsign exists.
+	 */
+	public RoadSign getStrongest(Collection<Station> excluded) {
+		for(RoadSign rs : byStrength)
+			if(!excluded.contains(rs.getEndStation()))
+				return rs;
+		return null;
+	}
+
+	public int size() {
+		return byEndStation.size();
+	}
+
+	public boolean isEmpty() {
+		return byEndStation.isEmpty();
+	}
+}
@@ -0,0 +1,205 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Plans a route along the destinations of several users at once, for the advanced task planning.
+ * A route is an order of stops: the destinations of the users on board and of the users that are picked up. The stops are
+ * joined by shortest paths (see DistanceTable) and the whole route is timed against the current reservations like an intention
+ * (see ExplorationEngine.time), so that the delivery time of every user is known.
+ *
+ * The waiting users are considered by deadline. Each one is inserted where the route becomes best, and left for another pod
+ * if no position makes the route better. The order of the stops is then improved by moving single stops (local search).
+ * Both phases share a fixed number of route evaluations, which bounds the time a decision takes.
+ *
+ * Routes are compared by the number of users delivered on time, then the number of users delivered, then the total delay
+ * and finally the time at which the last stop is reached.
+ */
+public class RoutePlanner {
+
+	// The maximal number of routes that are timed for a single decision.
+	public static int MAX_EVALUATIONS = 200;
+	// The maximal number of hops of a route.
+	public static int MAX_HOPS = 30;
+
+	// Orders users by deadline, the earliest first.
+	private static final Comparator<User> EARLIEST_DEADLINE = new Comparator<User>() {
+		@Override
+		public int compare(User u1, User u2) {
+			return Long.compare(u1.getDeadline(), u2.getDeadline());
+		}
+	};
+
+	private final Pod pod;
+	private final Station start;
+	private final long currentTime;
+	private final DistanceTable distances;
+	private int evaluations = 0;
+
+	/**
+	 * @param pod - The pod that plans, at its current station
+	 * @param currentTime - The current time
+	 */
+	public RoutePlanner(Pod pod, long currentTime) {
+		this.pod = pod;
+		this.start = pod.getCurrentStation();
+		this.currentTime = currentTime;
+		this.distances = start.getContext().getDistances();
+	}
+
+	/**
+	 * Plan a route that delivers the users on board of the pod and as many of the waiting users as fit and are worth it.
+	 *
+	 * @param waiting - The users waiting at the station of the pod
+	 * @return ExplorationPath - The route, or null if no route could be planned.
+	 */
+	public ExplorationPath plan(List<User> waiting) {
+		if(distances == null)
+			return null;
+
+		// Start with the users on board, which have to be delivered.
+		Route best = new Route(new ArrayList<Station>(), new ArrayList<User>());
+		for(User u : pod.getPassengers()) {
+			best = insert(best, u);
+			if(best == null)
+				return null;
+		}
+
+		// Add the waiting users, the most urgent ones first, as long as they make the route better.
+		ArrayList<User> candidates = new ArrayList<>(waiting);
+		Collections.sort(candidates, EARLIEST_DEADLINE);
+		for(User u : candidates) {
+			if(best.users.size() >= pod.getCapacity() || evaluations >= MAX_EVALUATIONS)
+				break;
+			Route r = insert(best, u);
+			if(r != null && r.isBetterThan(best))
+				best = r;
+		}
+
+		// Move single stops to another position as long as that improves the route.
+		boolean improved = true;
+		while(improved && evaluations < MAX_EVALUATIONS) {
+			improved = false;
+			for(int i = 0; i < best.stops.size() && !improved; i++) {
+				for(int j = 0; j < best.stops.size() && !improved && evaluations < MAX_EVALUATIONS; j++) {
+					if(i == j)
+						continue;
+					ArrayList<Station> stops = new ArrayList<>(best.stops);
+					stops.add(j, stops.remove(i));
+					Route r = evaluate(stops, best.users);
+					if(r != null && r.isBetterThan(best)) {
+						best = r;
+						improved = true;
+					}
+				}
+			}
+		}
+		return best.path;
+	}
+
+	/**
+	 * Add a user to a route, with its destination at the position where the route becomes best.
+	 *
+	 * @param route - The route
+	 * @param u - The user
+	 * @return Route - The best route with the user, or null if the user can't be added.
+	 */
+	private Route insert(Route route, User u) {
+		ArrayList<User> users = new ArrayList<>(route.users);
+		users.add(u);
+		if(route.stops.contains(u.getDestination()))
+			return evaluate(route.stops, users);
+
+		Route best = null;
+		for(int i = 0; i <= route.stops.size() && evaluations < MAX_EVALUATIONS; i++) {
+			ArrayList<Station> stops = new ArrayList<>(route.stops);
+			stops.add(i, u.getDestination());
+			Route r = evaluate(stops, users);
+			if(r != null && r.isBetterThan(best))
+				best = r;
+		}
+		return best;
+	}
+
+	/**
+	 * Join the stops by shortest paths and time the result.
+	 *
+	 * @param stops - The stops, in order
+	 * @param users - The users that are delivered at the stops
+	 * @return Route - The timed route, or null if it isn't feasible, visits a station twice or is too long.
+	 */
+	private Route evaluate(ArrayList<Station> stops, ArrayList<User> users) {
+		evaluations++;
+		ArrayList<Station> stations = new ArrayList<>();
+		HashSet<Station> visited = new HashSet<>();
+		stations.add(start);
+		visited.add(start);
+		Station current = start;
+		for(Station stop : stops) {
+			while(current != stop) {
+				current = distances.getNextHop(current, stop);
+				if(current == null || !visited.add(current) || stations.size() > MAX_HOPS)
+					return null;
+				stations.add(current);
+			}
+		}
+		if(stations.size() == 1)
+			return null;
+
+		ExplorationPath path = ExplorationEngine.time(stations.toArray(new Station[stations.size()]), pod, currentTime);
+		if(path == null)
+			return null;
+		Route route = new Route(stops, users);
+		route.path = path;
+		for(User u : users) {
+			long delivery = getTime(path, u.getDestination());
+			if(delivery <= u.getDeadline())
+				route.onTime++;
+			else
+				route.delay += delivery - u.getDeadline();
+		}
+		return route;
+	}
+
+	/**
+	 * Get the reservation time of a station on a path.
+	 */
+	private static long getTime(ExplorationPath path, Station s) {
+		for(ExplorationPath p = path; p != null; p = p.getParent())
+			if(p.getStation() == s)
+				return p.getTime();
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * An order of stops with the users delivered at them, and its timed path once it has been evaluated.
+	 */
+	private static class Route {
+		final ArrayList<Station> stops;
+		final ArrayList<User> users;
+		ExplorationPath path = null;
+		int onTime = 0;
+		long delay = 0;
+
+		Route(ArrayList<Station> stops, ArrayList<User> users) {
+			this.stops = stops;
+			this.users = users;
+		}
+
+		boolean isBetterThan(Route other) {
+			if(other == null || other.path == null)
+				return path != null;
+			if(onTime != other.onTime)
+				return onTime > other.onTime;
+			if(users.size() != other.users.size())
+				return users.size() > other.users.size();
+			if(delay != other.delay)
+				return delay < other.delay;
+			return path.getTime() < other.path.getTime();
+		}
+	}
+}
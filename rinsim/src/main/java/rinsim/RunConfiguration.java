@@ -0,0 +1,129 @@
+package rinsim;
+
+/**
+ * The parameters of a single simulation run.
+ */
+public class RunConfiguration {
+	
+	private final double spawnRate;
+	private final boolean advancedPlanning;
+	private final int maxUsers;
+	private final int deliveryDeadline;
+	private final long duration;
+	private final long seed;
+	private final int graphSize;
+	private final int fleetSize;
+	private final String graphFile;
+	private final long dispatchWindow;
+
+	/**
+	 * @param spawnRate - The expected number of new users each tick
+	 * @param advancedPlanning - Whether the sophisticated task planning algorithm is used
+	 * @param maxUsers - The maximal number of users on the graph at any time
+	 * @param deliveryDeadline - The delivery deadline that we should try to meet for each user
+	 * @param duration - The simulated time after which the run stops. 0 means the run doesn't stop by itself.
+	 * @param seed - The seed of the random generator of the simulator
+	 */
+	public RunConfiguration(double spawnRate, boolean advancedPlanning, int maxUsers, int deliveryDeadline, long duration, long seed) {
+		this(spawnRate, advancedPlanning, maxUsers, deliveryDeadline, duration, seed, 0, 0, null);
+	}
+	
+	/**
+	 * @param spawnRate - The expected number of new users each tick
+	 * @param advancedPlanning - Whether the sophisticated task planning algorithm is used
+	 * @param maxUsers - The maximal number of users on the graph at any time
+	 * @param deliveryDeadline - The delivery deadline that we should try to meet for each user
+	 * @param duration - The simulated time after which the run stops. 0 means the run doesn't stop by itself.
+	 * @param seed - The seed of the random generator of the simulator
+	 * @param graphSize - The number of nodes of a generated square grid. 0 means the graph of GraphModel with its three loading docks.
+	 * @param fleetSize - The number of pods, each starting at its own loading dock. Only used for generated grids.
+	 */
+	public RunConfiguration(double spawnRate, boolean advancedPlanning, int maxUsers, int deliveryDeadline, long duration, long seed, int graphSize, int fleetSize) {
+		this(spawnRate, advancedPlanning, maxUsers, deliveryDeadline, duration, seed, graphSize, fleetSize, null);
+	}
+	
+	/**
+	 * @param spawnRate - The expected number of new users each tick
+	 * @param advancedPlanning - Whether the sophisticated task planning algorithm is used
+	 * @param maxUsers - The maximal number of users on the graph at any time
+	 * @param deliveryDeadline - The delivery deadline that we should try to meet for each user
+	 * @param duration - The simulated time after which the run stops. 0 means the run doesn't stop by itself.
+	 * @param seed - The seed of the random generator of the simulator
+	 * @param graphSize - The number of nodes of a generated square grid. 0 means the graph of GraphModel with its three loading docks.
+	 * @param fleetSize - The number of pods, each starting at its own loading dock. Only used for generated grids and graph files.
+	 * @param graphFile - The file the graph is read from (see GraphLoader), or null. If set, the graph size is ignored.
+	 */
+	public RunConfiguration(double spawnRate, boolean advancedPlanning, int maxUsers, int deliveryDeadline, long duration, long seed, int graphSize, int fleetSize, String graphFile) {
+		this(spawnRate, advancedPlanning, maxUsers, deliveryDeadline, duration, seed, graphSize, fleetSize, graphFile, 0);
+	}
+	
+	/**
+	 * @param spawnRate - The expected number of new users each tick
+	 * @param advancedPlanning - Whether the sophisticated task planning algorithm is used
+	 * @param maxUsers - The maximal number of users on the graph at any time
+	 * @param deliveryDeadline - The delivery deadline that we should try to meet for each user
+	 * @param duration - The simulated time after which the run stops. 0 means the run doesn't stop by itself.
+	 * @param seed - The seed of the random generator of the simulator
+	 * @param graphSize - The number of nodes of a generated square grid. 0 means the graph of GraphModel with its three loading docks.
+	 * @param fleetSize - The number of pods, each starting at its own loading dock. Only used for generated grids and graph files.
+	 * @param graphFile - The file the graph is read from (see GraphLoader), or null. If set, the graph size is ignored.
+	 * @param dispatchWindow - The simulated time between two assignments of users to pods by a central Dispatcher.
+	 *                         0 means the pods find their users themselves, by following roadsigns.
+	 */
+	public RunConfiguration(double spawnRate, boolean advancedPlanning, int maxUsers, int deliveryDeadline, long duration, long seed, int graphSize, int fleetSize, String graphFile, long dispatchWindow) {
+		this.spawnRate = spawnRate;
+		this.advancedPlanning = advancedPlanning;
+		this.maxUsers = maxUsers;
+		this.deliveryDeadline = deliveryDeadline;
+		this.duration = duration;
+		this.seed = seed;
+		this.graphSize = graphSize;
+		this.fleetSize = fleetSize;
+		this.graphFile = graphFile;
+		this.dispatchWindow = dispatchWindow;
+	}
+
+	/**
+	 * Getters.
+	 */
+	
+	public double getSpawnRate() {
+		return spawnRate;
+	}
+
+	public boolean isAdvancedPlanning() {
+		return advancedPlanning;
+	}
+
+	public int getMaxUsers() {
+		return maxUsers;
+	}
+
+	public int getDeliveryDeadline() {
+		return deliveryDeadline;
+	}
+
+	public long getDuration() {
+		return duration;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getGraphSize() {
+		return graphSize;
+	}
+
+	public int getFleetSize() {
+		return fleetSize;
+	}
+
+	public String getGraphFile() {
+		return graphFile;
+	}
+
+	public long getDispatchWindow() {
+		return dispatchWindow;
+	}
+}
@@ -0,0 +1,76 @@
+package rinsim;
+
+/**
+ * The outcome of a single simulation run.
+ */
+public class RunResult {
+
+	private final RunConfiguration configuration;
+	private final int usersOnTime;
+	private final int usersLate;
+	private final double averageDelay;
+	private final double delayDeviation;
+	private final long delayP50;
+	private final long delayP95;
+	private final long delayP99;
+
+	/**
+	 * @param configuration - The configuration of the run
+	 * @param usersOnTime - The number of users that were delivered on time
+	 * @param delays - The delays of the users that were not delivered on time, in milliseconds
+	 */
+	public RunResult(RunConfiguration configuration, int usersOnTime, DelayStatistics delays) {
+		this.configuration = configuration;
+		this.usersOnTime = usersOnTime;
+		this.usersLate = (int) delays.getCount();
+		this.averageDelay = delays.getMean();
+		this.delayDeviation = delays.getStandardDeviation();
+		this.delayP50 = delays.getPercentile(0.5);
+		this.delayP95 = delays.getPercentile(0.95);
+		this.delayP99 = delays.getPercentile(0.99);
+	}
+
+	@Override
+	public String toString() {
+		return (configuration.isAdvancedPlanning() ? "advanced" : "basic") + " planning"
+				+ (configuration.getDispatchWindow() > 0 ? ", central dispatch every " + configuration.getDispatchWindow() + " ms" : "") + ", spawn rate " + configuration.getSpawnRate()
+				+ ", seed " + configuration.getSeed() + ": " + usersOnTime + " on time, " + usersLate + " late, average delay " + averageDelay + " ms"
+				+ " (p50 " + delayP50 + ", p95 " + delayP95 + ", p99 " + delayP99 + " ms)";
+	}
+
+	/**
+	 * Getters.
+	 */
+
+	public RunConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	public int getUsersOnTime() {
+		return usersOnTime;
+	}
+
+	public int getUsersLate() {
+		return usersLate;
+	}
+
+	public double getAverageDelay() {
+		return averageDelay;
+	}
+
+	public double getDelayDeviation() {
+		return delayDeviation;
+	}
+
+	public long getDelayP50() {
+		return delayP50;
+	}
+
+	public long getDelayP95() {
+		return delayP95;
+	}
+
+	public long getDelayP99() {
+		return delayP99;
+	}
+}
@@ -0,0 +1,100 @@
+package rinsim;
+
+/**
+ * The state of a single simulation that is shared by its stations, loading docks and pods:
+ * the configuration of the run, the metrics collected during it, the simulation-wide roadsign expiry queue, the ants on their way and the topology of the graph.
+ */
+public class SimulationContext {
+	
+	private final RunConfiguration configuration;
+	private final RoadSignExpiry roadSignExpiry = new RoadSignExpiry();
+	private final AntQueue ants = new AntQueue();
+	// The connections between the stations and loading docks, and the distances between the stations, once the graph has been built.
+	private Topology topology = null;
+	private DistanceTable distances = null;
+	// The central dispatcher of the users, if the pods don't find them through roadsigns.
+	private Dispatcher dispatcher = null;
+	
+	private int usersOnTime = 0;
+	// The delays of the users that were not delivered on time.
+	private final DelayStatistics delays = new DelayStatistics();
+
+	public SimulationContext(RunConfiguration configuration) {
+		this.configuration = configuration;
+	}
+	
+	/**
+	 * Register the delivery of a user: either it was on time, or its delay is recorded.
+	 * 
+	 * @param u - The user that has been delivered
+	 * @param time - The time of delivery
+	 */
+	public void registerDelivery(User u, long time) {
+		long delay = time - u.getDeadline();
+		if(delay > 0)
+			delays.record(delay);
+		else
+			usersOnTime++;
+	}
+	
+	/**
+	 * Get the average delay of the users that were not delivered on time.
+	 * 
+	 * @return double - The average delay in milliseconds
+	 */
+	public double getAverageDelay() {
+		return delays.getMean();
+	}
+
+	/**
+	 * Getters and setters.
+	 */
+	
+	public RunConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	public RoadSignExpiry getRoadSignExpiry() {
+		return roadSignExpiry;
+	}
+
+	public AntQueue getAnts() {
+		return ants;
+	}
+
+	public Topology getTopology() {
+		return topology;
+	}
+
+	public void setTopology(Topology topology) {
+		this.topology = topology;
+	}
+
+	public DistanceTable getDistances() {
+		return distances;
+	}
+
+	public void setDistances(DistanceTable distances) {
+		this.distances = distances;
+	}
+
+	public Dispatcher getDispatcher() {
+		return dispatcher;
+	}
+
+	public void setDispatcher(Dispatcher dispatcher) {
+		this.dispatcher = dispatcher;
+	}
+
+	public int getUsersOnTime() {
+		return usersOnTime;
+	}
+
+	public int getUsersLate() {
+		return (int) delays.getCount();
+	}
+
+	public DelayStatistics getDelays() {
+		return delays;
+	}
+}
@@ -1,8 +1,6 @@
 package rinsim;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 
 import com.github.rinde.rinsim.core.model.pdp.Depot;
 import com.github.rinde.rinsim.geom.Point;
@@ -16,100 +14,53 @@ public class Station extends Depot {
 	public static long BUFFER_TIME = 10000;
 
 	
-	private ArrayList<Reservation> reservations = new ArrayList<>();
-	private ArrayList<RoadSign> roadsigns = new ArrayList<>();
-	private ArrayList<Station> neighbours = new ArrayList<>();
+	private ReservationCalendar calendar = new ReservationCalendar();
+	private RoadSignTable roadsigns = new RoadSignTable();
 	private ArrayList<User> passengers = new ArrayList<>();
-	private ArrayList<LoadingDock> loadingDocks = new ArrayList<>();
 	
 	private Pod pod = null;
 	private Point position;
+	// The index of this station among all stations of the simulation, see Topology.
+	private int id;
+	private SimulationContext context;
+	// The region this station is updated in when the graph is partitioned (see StationPhase), or null.
+	private Region region = null;
 
-	public Station(Point position) {
+	public Station(Point position, SimulationContext context) {
 		super(position);		
 		setPosition(position);
 		setCapacity(1);
+		setContext(context);
 	}
 	
-	// Process all incoming ants.
-	public void receiveExplorationAnt(LinkedHashMap<Station,Long> prev, Station dest, int hop, Pod pod, long time) {
-		forwardExploration(prev, dest, hop, pod, time);
+	// Process all incoming ants. Exploration is done at once, the other ants go through the AntQueue of the simulation:
+	// when these methods return, the ant and all ants it caused have been processed.
+	public void receiveExplorationAnt(Station dest, int hop, Pod pod, long time) {
+		long start = AntMetrics.start(AntMetrics.Probe.EXPLORATION);
+		forwardExploration(dest, hop, pod, time);
+		AntMetrics.stop(AntMetrics.Probe.EXPLORATION, start, getContext().getAnts().size());
 	}
 	public void receiveReservationAnt(ArrayList<Reservation> res) {
-		makeReservation(res);
+		getContext().getAnts().sendReservation(this, res);
+		getContext().getAnts().drain();
 	}
-	public void receiveRoadSignAnt(RoadSign prev) {
-		makeRoadsign(prev);
+	public void receiveRoadSignAnt(RoadSign prev, long time) {
+		getContext().getAnts().sendRoadSign(this, prev, time);
+		getContext().getAnts().drain();
 	}
 	
 	/**
-	 * Adds itself to the list of visited stations and forwards to each neighbour until it reaches
-	 * the destination. Then it will start sending back the information by going through the chain of stations again.
-	 * If the ant doesn't arrive at the correct destination, a loop is detected or the hops run out: 
-	 * the chain is cancelled, and nothing is returned.
+	 * Explore the graph from this station towards the destination and inform the pod of every intention that was found.
+	 * The exploration is a best-first search instead of a flood of ants, see ExplorationEngine.
 	 * 
-	 * @param prev - The list of previously visited stations
 	 * @param dest - The destination Station. If this is null, the pod is trying to route to a loadingdock.
-	 * @param hop - The current hop-count. -1 indicates that the returning process is ongoing.
+	 * @param hop - The maximal number of hops the exploration may take.
+	 * @param pod - The pod that is exploring
+	 * @param currentTime - The current time
 	 */
-	private void forwardExploration(LinkedHashMap<Station,Long> prev, Station dest, int hop, Pod pod, long currentTime) {
-		if(dest == null && !getLoadingDocks().isEmpty())
-			dest = this;
-		
-		// If the hops have run out or loop has been detected (station is already in prev): kill the chain.
-		if((hop == 0 && this != dest) || (prev.keySet().contains(this) && hop != -1))
-			return;
-		
-		long prevTime = currentTime;
-		Iterator<Long> iterator = prev.values().iterator();
-		while (iterator.hasNext()) { 
-			prevTime = iterator.next(); 
-		}
-		
-		// If the ant has arrived, add this station to the list and continue the method.
-		if(this == dest) {
-			long resTime = checkPossibleReservationTime(prevTime + RESERVATION_TIME).begin();
-			if(resTime > 9999999999999999L)
-				return;
-			else
-				prev.put(this, resTime);
-		}
-
-		// If the ant has arrived or the hop count is set to -1: start returning.
-		if(this == dest || hop == -1) {
-			// If we've reached the end of the chain, the current pod should be informed.
-			if(this.equals(prev.keySet().iterator().next())) {
-				getPod().receiveExplorationResult(prev);
-				return;
-			}
-			// If not: send to the next previous station, but use a copy.
-			Station prevStation = null;
-			Iterator<Station> it = prev.keySet().iterator();
-			Station curStation = it.next();
-
-			while(curStation != this) {
-				prevStation = curStation;
-				curStation = it.next();
-			}
-			prevStation.receiveExplorationAnt(new LinkedHashMap<Station, Long>(prev), dest, -1, pod, currentTime);
-		
-		// Else: Add this station and forward to each neighbour a copy of the current list (to avoid concurrent modifications).	
-		} else {
-			if(getPod() == pod)
-				prev.put(this, currentTime + RESERVATION_TIME);
-			else {
-				long resTime = checkPossibleReservationTime(prevTime + RESERVATION_TIME).begin();
-				// If the ant reaches a station at which a pod is waiting: kill the chain.
-				// This is one of the methods that ensures that pods cannot be at the same station at once.
-				if(resTime > 99999999999999L)
-					return;
-				else
-					prev.put(this, resTime);
-			}
-			for(Station s : getNeighbours()) {
-				s.receiveExplorationAnt(new LinkedHashMap<Station, Long>(prev), dest, hop - 1, pod, currentTime);
-			}
-		}
+	private void forwardExploration(Station dest, int hop, Pod pod, long currentTime) {
+		for(ExplorationPath intention : ExplorationEngine.explore(this, dest, hop, pod, currentTime))
+			pod.receiveExplorationResult(intention);
 	}
 
 	/**
@@ -132,13 +83,13 @@ public class Station extends Depot {
 	 * @param preferredTime - The preferred time a reservation should be made
 	 * @param refreshing - Indicates whether or not a new reservation is being made, or a current one is being refreshed
 	 */
-	private void makeReservation(ArrayList<Reservation> res) {
+	void makeReservation(ArrayList<Reservation> res) {
 		Reservation current = res.remove(0);		
 
-		getReservations().add(current);
+		getCalendar().add(current);
 		if(PeopleMover.DEBUGGING)
 			System.out.println("Made a reservation for pod " + current.getPod() + " with timewindow " + current.getTime() + ".\n"
-					+ "Number of reservations for this station at " + this.getPosition() +": "+ this.getReservations().size());
+					+ "Number of reservations for this station at " + this.getPosition() +": "+ this.getCalendar().size());
 		
 		// If we've reached the end in the reservationlist (= this station is the intended destination): Start rebuilding a list
 		// of actual reservations for the pod to know about. Inform the pod at the end (when no previous station is available).
@@ -161,20 +112,25 @@ public class Station extends Depot {
 	}
 	
 	/**
-	 * Rebuild the list of reservations to be sent back to the pod.
+	 * Rebuild the list of reservations to be sent back to the pod, through the AntQueue of the simulation.
 	 * 
 	 * @param res - The list of reservations to be completed
 	 */
 	public void sendConfirmation(ArrayList<Reservation> res) {
+		getContext().getAnts().sendConfirmation(this, res);
+		getContext().getAnts().drain();
+	}
+	
+	/**
+	 * Add the reservation of this station to the list and forward it to the previous station, or to the pod if it's here.
+	 * 
+	 * @param res - The list of reservations to be completed
+	 */
+	void forwardConfirmation(ArrayList<Reservation> res) {
 		
 		// Get the pod this reservation sequence is intended for and find the reservation for it in this station.
 		Pod p = res.get(0).getPod();
-		Reservation correctReservation = null;
-		for(Reservation r : getReservations()) {
-			if (r.getPod() == p) {
-				correctReservation = r;
-			}
-		}
+		Reservation correctReservation = getCalendar().getReservation(p);
 		res.add(correctReservation);
 		
 		// If we have arrived: forward the reservations on to the pod and terminate.
@@ -190,56 +146,101 @@ public class Station extends Depot {
 	/**
 	 * Create a RoadSign using a feasibility ant, and forward the ant onto a random neighbour,
 	 * but only if there are any hops left.
+	 * The strength of the ant is the number of users waiting at its end station. A new RoadSign gets that strength, an existing
+	 * one keeps the larger of its decayed strength and the strength of the ant, so that no demand is lost.
 	 * 
 	 * @param previous - The RoadSign issued by the previous station.
+	 * @param time - The current time
 	 */
-	private void makeRoadsign(RoadSign previous) {
+	void makeRoadsign(RoadSign previous, long time) {
 		RoadSign sign = null;
 		int hops = previous.getHops();
 		boolean updated = false;
 		
-		// If a roadsign already exists with the same endStation: reset it's strength and update the hops correctly. 
-		for(RoadSign rs : getRoadsigns()) {
-			if(rs.getEndStation() == previous.getEndStation()) {
-				rs.setStrength(1);
-				if(rs.getHops() < hops) {
-					hops = rs.getHops();
-				}
-				updated  = true;
+		// If a roadsign already exists with the same endStation: combine its strength with the ant's and update the hops correctly.
+		RoadSign rs = getRoadsigns().get(previous.getEndStation());
+		if(rs != null) {
+			if(rs.getHops() < hops) {
+				hops = rs.getHops();
 			}
+			// If this tick's ant has already passed here with at least as many hops left, there is nothing new to forward.
+			if(rs.getRefreshTime() == time && rs.getForwardedHops() >= hops)
+				return;
+			getRoadsigns().refresh(rs, Math.max(rs.getStrength(time), previous.getStrength()), time);
+			getRoadSignExpiry().schedule(this, rs);
+			rs.setForwardedHops(hops);
+			updated  = true;
 		}
 		
 		// Set the details
 		sign = new RoadSign();
 		sign.setHops(hops - 1);
 		sign.setEndStation(previous.getEndStation());
+		sign.refresh(previous.getStrength(), time);
+		sign.setForwardedHops(hops);
 		
 		// If none was updated, add it to the current list of RoadSigns for this station.
-		if(!updated)
+		if(!updated) {
 			getRoadsigns().add(sign);
+			getRoadSignExpiry().schedule(this, sign);
+		}
 
-		// If there are any hops left: forward.
+		// If there are any hops left: forward. The neighbours are queued last to first, so the first one is processed first.
+		// In a partitioned graph the region decides whether the ant stays in its queue or is handed over.
 		if(hops > 0) {
-			for(Station s : getNeighbours()){
-				s.receiveRoadSignAnt(sign);
+			Topology topology = getContext().getTopology();
+			int[] targets = topology.getTargets();
+			for(int i = topology.getStationLimit(getId()) - 1; i >= topology.getFirst(getId()); i--) {
+				if(region != null)
+					region.sendRoadSign(topology.getStation(targets[i]), sign, time);
+				else
+					getContext().getAnts().sendRoadSign(topology.getStation(targets[i]), sign, time);
 			}
 		}
 	}
 
 	/**
 	 * Retrieve a timewindow that is usable for a new reservation as close to the specified time.
+	 * The timewindow may lie in between two existing reservations.
 	 * 
 	 * @param time - The time at which a pod wishes to visit.
 	 * @return TimeWindow - The timewindow that can be reserved.
 	 */
 	public TimeWindow checkPossibleReservationTime(long time) {
-		if(getReservations().isEmpty())
-			return TimeWindow.create(time, time + RESERVATION_TIME);
-		Reservation lastRes = getReservations().get(getReservations().size() - 1);
-		if(time > lastRes.getTime().end())
-			return TimeWindow.create(time, time + RESERVATION_TIME);
-		else 
-			return TimeWindow.create(lastRes.getTime().end(), lastRes.getTime().end() + RESERVATION_TIME);	
+		long begin = getCalendar().findFreeSlot(time, RESERVATION_TIME);
+		return TimeWindow.create(begin, begin + RESERVATION_TIME);
+	}
+	
+	/**
+	 * Retrieve a timewindow that is usable for a pod that ends its route at this station, as close to the specified time.
+	 * Since the pod stays at the station, no reservations may follow the timewindow.
+	 * 
+	 * @param time - The time at which a pod wishes to arrive.
+	 * @return TimeWindow - The timewindow that can be reserved.
+	 */
+	public TimeWindow checkPossibleEndReservationTime(long time) {
+		long begin = getCalendar().findOpenSlot(time);
+		return TimeWindow.create(begin, begin + RESERVATION_TIME);
+	}
+	
+	/**
+	 * Check whether the station is free during the given period.
+	 * 
+	 * @param begin - The start of the period
+	 * @param end - The end of the period
+	 * @return boolean
+	 */
+	public boolean isFree(long begin, long end) {
+		return getCalendar().isFree(begin, end);
+	}
+
+	/**
+	 * Get the queue in which the roadsigns of this station are scheduled for removal: the one of its region, if the graph is partitioned.
+	 * 
+	 * @return RoadSignExpiry
+	 */
+	private RoadSignExpiry getRoadSignExpiry() {
+		return region != null ? region.getRoadSignExpiry() : getContext().getRoadSignExpiry();
 	}
 
 	/**
@@ -258,30 +259,22 @@ public class Station extends Depot {
 		this.passengers = passengers;
 	}
 
-	public ArrayList<Reservation> getReservations() {
-		return reservations;
+	public ReservationCalendar getCalendar() {
+		return calendar;
 	}
 
-	public void setReservations(ArrayList<Reservation> reservations) {
-		this.reservations = reservations;
+	public void setCalendar(ReservationCalendar calendar) {
+		this.calendar = calendar;
 	}
 
-	public ArrayList<RoadSign> getRoadsigns() {
+	public RoadSignTable getRoadsigns() {
 		return roadsigns;
 	}
 
-	public void setRoadsigns(ArrayList<RoadSign> roadsigns) {
+	public void setRoadsigns(RoadSignTable roadsigns) {
 		this.roadsigns = roadsigns;
 	}
 
-	public ArrayList<Station> getNeighbours() {
-		return neighbours;
-	}
-
-	public void setNeighbours(ArrayList<Station> neighbours) {
-		this.neighbours = neighbours;
-	}
-
 	public Pod getPod() {
 		return pod;
 	}
@@ -294,15 +287,44 @@ public class Station extends Depot {
 		return position;
 	}
 
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
 	public void setPosition(Point position) {
 		this.position = position;
 	}
 
-	public ArrayList<LoadingDock> getLoadingDocks() {
-		return loadingDocks;
+	public SimulationContext getContext() {
+		return context;
+	}
+
+	public void setContext(SimulationContext context) {
+		this.context = context;
 	}
 
-	public void setLoadingDocks(ArrayList<LoadingDock> loadingDocks) {
-		this.loadingDocks = loadingDocks;
-	}	
+	public Region getRegion() {
+		return region;
+	}
+
+	public void setRegion(Region region) {
+		this.region = region;
+	}
+
+	/**
+	 * Get the first loading dock next to this station, from the connections of the topology.
+	 * 
+	 * @return LoadingDock - The loading dock, or null if there is none
+	 */
+	public LoadingDock getLoadingDock() {
+		Topology topology = getContext().getTopology();
+		int limit = topology.getStationLimit(getId());
+		if(limit == topology.getEnd(getId()))
+			return null;
+		return topology.getLoadingDock(topology.getTargets()[limit]);
+	}
 }
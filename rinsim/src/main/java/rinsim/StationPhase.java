@@ -0,0 +1,191 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The update of the stations at the end of a tick, split over regions of the graph that are each updated by their own worker
+ * (see Region). The graph is split by recursive coordinate bisection: the stations are halved along the longest side of
+ * their bounding box until there are as many parts as regions, so that few roads cross from one region to another.
+ *
+ * A tick of the stations is a sequence of rounds separated by a barrier. In the first round each region expires its
+ * reservations and roadsigns and sends out its road sign ants. In every next round it receives the ants that were handed
+ * over to it in the round before. The tick ends when a round has handed over no ants.
+ *
+ * Only the stations are partitioned. The pods are not: they move and pick up users through the road and PDP models of the
+ * single RinSim simulator, which aren't thread-safe, so they keep ticking one after the other and aren't handed over
+ * between regions. The expensive part of a pod's tick, exploring and choosing a route, runs in parallel in the
+ * DecisionPhase instead.
+ *
+ * The roadsigns that are built don't depend on the speed of the workers, so runs with the same number of regions stay
+ * reproducible. With a single region they are the same as without regions. With more regions, an ant that crosses a border
+ * is processed a round later than it would be otherwise, so a station may be reached along another path first and keep other hops.
+ */
+public class StationPhase {
+
+	// Orders stations along the x-axis and along the y-axis.
+	private static final Comparator<Station> BY_X = new Comparator<Station>() {
+		@Override
+		public int compare(Station s1, Station s2) {
+			return Double.compare(s1.getPosition().x, s2.getPosition().x);
+		}
+	};
+	private static final Comparator<Station> BY_Y = new Comparator<Station>() {
+		@Override
+		public int compare(Station s1, Station s2) {
+			return Double.compare(s1.getPosition().y, s2.getPosition().y);
+		}
+	};
+	private static final Comparator<Station> BY_ID = new Comparator<Station>() {
+		@Override
+		public int compare(Station s1, Station s2) {
+			return Integer.compare(s1.getId(), s2.getId());
+		}
+	};
+
+	private final ArrayList<Region> regions = new ArrayList<>();
+	private final ExecutorService pool;
+	private final CyclicBarrier barrier;
+	// Whether the last round has handed over no ants. Set by the barrier, between two rounds.
+	private volatile boolean done = false;
+
+	/**
+	 * Split the stations into regions and start a worker per region.
+	 *
+	 * @param stations - The stations of the simulation, with their ids (see Topology)
+	 * @param count - The number of regions. There are never more regions than stations.
+	 * @param name - The name of the simulation, used for the names of the threads
+	 */
+	public StationPhase(List<Station> stations, int count, final String name) {
+		ArrayList<ArrayList<Station>> parts = new ArrayList<>();
+		split(new ArrayList<>(stations), Math.max(1, Math.min(count, stations.size())), parts);
+		for(ArrayList<Station> part : parts) {
+			Collections.sort(part, BY_ID);
+			regions.add(new Region(regions.size(), parts.size(), part));
+		}
+
+		this.pool = Executors.newFixedThreadPool(regions.size(), new ThreadFactory() {
+			private int count = 0;
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "region-" + name + "-" + count++);
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		this.barrier = new CyclicBarrier(regions.size(), new Runnable() {
+			@Override
+			public void run() {
+				boolean handedOver = false;
+				for(Region r : regions)
+					handedOver |= r.hasOutgoing();
+				done = !handedOver;
+			}
+		});
+	}
+
+	/**
+	 * Update the stations of all regions for a tick, and wait until every region is done.
+	 *
+	 * @param time - The current time
+	 * @param roadsigns - Whether the stations where users wait send out road sign ants
+	 */
+	public void run(final long time, final boolean roadsigns) {
+		done = false;
+		ArrayList<Callable<Void>> workers = new ArrayList<>();
+		for(final Region region : regions) {
+			workers.add(new Callable<Void>() {
+				@Override
+				public Void call() throws InterruptedException, BrokenBarrierException {
+					try {
+						region.start(time, roadsigns);
+						barrier.await();
+						while(!done) {
+							region.receive(regions);
+							barrier.await();
+						}
+						return null;
+					} catch (RuntimeException e) {
+						// Release the other workers from the barrier.
+						barrier.reset();
+						throw e;
+					}
+				}
+			});
+		}
+		try {
+			for(Future<Void> f : pool.invokeAll(workers))
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A region failed to update its stations.", e.getCause());
+		}
+	}
+
+	/**
+	 * Stop the workers.
+	 */
+	public void close() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Split stations into parts of (nearly) equal size by halving them along the longest side of their bounding box.
+	 *
+	 * @param stations - The stations
+	 * @param count - The number of parts
+	 * @param parts - The list the parts are added to
+	 */
+	private static void split(ArrayList<Station> stations, int count, ArrayList<ArrayList<Station>> parts) {
+		if(count == 1) {
+			parts.add(stations);
+			return;
+		}
+		double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for(Station s : stations) {
+			minX = Math.min(minX, s.getPosition().x);
+			maxX = Math.max(maxX, s.getPosition().x);
+			minY = Math.min(minY, s.getPosition().y);
+			maxY = Math.max(maxY, s.getPosition().y);
+		}
+		Collections.sort(stations, maxX - minX >= maxY - minY ? BY_X : BY_Y);
+
+		// The first half of the parts gets its share of the stations.
+		int first = count / 2;
+		int size = (int) ((long) stations.size() * first / count);
+		split(new ArrayList<>(stations.subList(0, size)), first, parts);
+		split(new ArrayList<>(stations.subList(size, stations.size())), count - first, parts);
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public List<Region> getRegions() {
+		return regions;
+	}
+
+	/**
+	 * Get the number of road sign ants that have been handed over from one region to another.
+	 *
+	 * @return long
+	 */
+	public long getHandovers() {
+		long handovers = 0;
+		for(Region r : regions)
+			handovers += r.getHandovers();
+		return handovers;
+	}
+}
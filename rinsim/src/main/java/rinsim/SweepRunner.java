@@ -0,0 +1,53 @@
+package rinsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a list of simulation configurations on a pool of worker threads, each in its own simulator and without a GUI.
+ */
+public class SweepRunner {
+	
+	private final int threads;
+
+	/**
+	 * @param threads - The number of runs that may be executed at the same time
+	 */
+	public SweepRunner(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Execute all runs and wait for them to finish.
+	 * 
+	 * @param configurations - The configurations to run
+	 * @param results - Where the results of each run are written to, shared by all runs, or null
+	 * @return The results, in the same order as the configurations
+	 */
+	public ArrayList<RunResult> run(List<RunConfiguration> configurations, final ResultsWriter results) throws InterruptedException, ExecutionException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			ArrayList<Future<RunResult>> futures = new ArrayList<>();
+			for(final RunConfiguration c : configurations) {
+				futures.add(pool.submit(new Callable<RunResult>() {
+					@Override
+					public RunResult call() throws Exception {
+						return new PeopleMover().run(c, ViewMode.HEADLESS, results);
+					}
+				}));
+			}
+			
+			ArrayList<RunResult> outcomes = new ArrayList<>();
+			for(Future<RunResult> f : futures)
+				outcomes.add(f.get());
+			return outcomes;
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,229 @@
+package rinsim;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import com.github.rinde.rinsim.core.model.time.TickListener;
+import com.github.rinde.rinsim.core.model.time.TimeLapse;
+
+/**
+ * Samples the state of a simulation at a fixed interval of simulated time, after all pods have ticked:
+ * the waiting passengers, reservations and roadsigns per station, the occupancy and battery per pod and the deliveries
+ * and their delays so far.
+ *
+ * Samples are stored in a ring of preallocated slots, so sampling doesn't allocate. A background thread writes the samples
+ * to a ResultsWriter as "telemetry" records and frees their slots. If the writer falls behind and the ring is full,
+ * samples are dropped rather than holding up the simulation; every sample reports the number of samples dropped so far.
+ */
+public class TelemetryProbe implements TickListener {
+
+	// The number of samples that can wait to be written.
+	private static final int SLOTS = 64;
+	// The time the writing thread sleeps when there is nothing to write, in nanoseconds.
+	private static final long IDLE_TIME = 50000000; // 50 ms
+
+	private final SimulationContext context;
+	private final Station[] stations;
+	private final Pod[] pods;
+	private final long interval;
+	private final ResultsWriter results;
+	private final boolean detailed;
+
+	private final Sample[] slots = new Sample[SLOTS];
+	// The number of samples taken and written so far. Only the simulation thread increases taken, only the writing thread written.
+	private volatile long taken = 0;
+	private volatile long written = 0;
+	private volatile boolean closed = false;
+	// The number of samples dropped so far.
+	private volatile long dropped = 0;
+	private long nextSample;
+	private final Thread writer;
+
+	/**
+	 * @param context - The context of the simulation
+	 * @param stations - The stations of the simulation
+	 * @param pods - The pods of the simulation
+	 * @param interval - The simulated time between two samples
+	 * @param results - Where the samples are written to
+	 * @param detailed - Whether each sample holds the values of every station and pod, or only their totals
+	 */
+	public TelemetryProbe(SimulationContext context, List<Station> stations, List<Pod> pods, long interval, ResultsWriter results, boolean detailed) {
+		this.context = context;
+		this.stations = stations.toArray(new Station[stations.size()]);
+		this.pods = pods.toArray(new Pod[pods.size()]);
+		this.interval = interval;
+		this.results = results;
+		this.detailed = detailed;
+		this.nextSample = interval;
+		for(int i = 0; i < SLOTS; i++)
+			slots[i] = new Sample(this.stations.length, this.pods.length);
+
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "telemetry-" + context.getConfiguration().getSeed());
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void tick(TimeLapse timeLapse) {}
+
+	@Override
+	public void afterTick(TimeLapse timeLapse) {
+		long time = timeLapse.getEndTime();
+		if(time < nextSample)
+			return;
+		nextSample += interval * ((time - nextSample) / interval + 1);
+
+		if(taken - written >= SLOTS) {
+			dropped++;
+			return;
+		}
+		Sample s = slots[(int) (taken % SLOTS)];
+		s.time = time;
+		s.dropped = dropped;
+		s.usersOnTime = context.getUsersOnTime();
+		s.usersLate = context.getUsersLate();
+		s.averageDelay = context.getDelays().getMean();
+		s.delayP95 = context.getDelays().getPercentile(0.95);
+		for(int i = 0; i < stations.length; i++) {
+			s.waiting[i] = stations[i].getPassengers().size();
+			s.reservations[i] = stations[i].getCalendar().size();
+			s.roadsigns[i] = stations[i].getRoadsigns().size();
+		}
+		for(int i = 0; i < pods.length; i++) {
+			s.occupancy[i] = pods[i].getPassengers().size();
+			s.battery[i] = pods[i].getBattery();
+		}
+		taken++;
+		LockSupport.unpark(writer);
+	}
+
+	/**
+	 * Write the samples that are left and stop the writing thread.
+	 */
+	public void close() throws InterruptedException {
+		closed = true;
+		LockSupport.unpark(writer);
+		writer.join();
+	}
+
+	/**
+	 * Write samples as they are taken, until the probe is closed and all samples have been written.
+	 */
+	private void drain() {
+		while(true) {
+			boolean last = closed;
+			while(written < taken) {
+				write(slots[(int) (written % SLOTS)]);
+				written++;
+			}
+			if(last)
+				break;
+			LockSupport.parkNanos(IDLE_TIME);
+		}
+		try {
+			results.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write a sample as a record.
+	 *
+	 * @param s - The sample
+	 */
+	private void write(Sample s) {
+		LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+		fields.put("type", "telemetry");
+		fields.put("seed", context.getConfiguration().getSeed());
+		fields.put("time", s.time);
+		fields.put("dropped", s.dropped);
+		fields.put("usersOnTime", s.usersOnTime);
+		fields.put("usersLate", s.usersLate);
+		fields.put("averageDelay", s.averageDelay);
+		fields.put("delayP95", s.delayP95);
+
+		int busiest = 0;
+		for(int i = 1; i < stations.length; i++)
+			if(s.waiting[i] > s.waiting[busiest])
+				busiest = i;
+		fields.put("waiting", sum(s.waiting));
+		fields.put("busiestStation", stations.length == 0 ? null : stations[busiest].getId());
+		fields.put("busiestStationWaiting", stations.length == 0 ? 0 : s.waiting[busiest]);
+		fields.put("reservations", sum(s.reservations));
+		fields.put("roadsigns", sum(s.roadsigns));
+
+		double capacity = 0;
+		double battery = 0;
+		double minBattery = Double.NaN;
+		for(int i = 0; i < pods.length; i++) {
+			capacity += pods[i].getCapacity();
+			battery += s.battery[i];
+			if(!(s.battery[i] >= minBattery))
+				minBattery = s.battery[i];
+		}
+		fields.put("occupancy", capacity == 0 ? Double.NaN : sum(s.occupancy) / capacity);
+		fields.put("averageBattery", battery / pods.length);
+		fields.put("minBattery", minBattery);
+
+		if(detailed) {
+			fields.put("stationWaiting", s.waiting);
+			fields.put("stationReservations", s.reservations);
+			fields.put("stationRoadsigns", s.roadsigns);
+			fields.put("podPassengers", s.occupancy);
+			fields.put("podBattery", s.battery);
+		}
+		try {
+			results.write(fields);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public long getDropped() {
+		return dropped;
+	}
+
+	private static long sum(int[] values) {
+		long sum = 0;
+		for(int v : values)
+			sum += v;
+		return sum;
+	}
+
+	/**
+	 * The state of the simulation at one point in time. The arrays are indexed like the stations and pods of the probe.
+	 */
+	private static class Sample {
+		long time;
+		long dropped;
+		int usersOnTime;
+		int usersLate;
+		double averageDelay;
+		long delayP95;
+		final int[] waiting;
+		final int[] reservations;
+		final int[] roadsigns;
+		final int[] occupancy;
+		final double[] battery;
+
+		Sample(int stations, int pods) {
+			waiting = new int[stations];
+			reservations = new int[stations];
+			roadsigns = new int[stations];
+			occupancy = new int[pods];
+			battery = new double[pods];
+		}
+	}
+}
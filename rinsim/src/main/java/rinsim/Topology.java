@@ -0,0 +1,143 @@
+package rinsim;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import com.github.rinde.rinsim.geom.Connection;
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.Point;
+
+/**
+ * The static connections between the stations and loading docks, built once from the graph.
+ * Every station and loading dock gets a dense id: the stations come first, the loading docks after them.
+ * The neighbours of all nodes are stored in one array (compressed sparse rows): the neighbours of node i are
+ * getTargets()[getFirst(i)] up to getTargets()[getEnd(i)], with the stations before getStationLimit(i) and the loading docks after it.
+ */
+public class Topology {
+
+	private final Station[] stations;
+	private final LoadingDock[] loadingDocks;
+	// Where the neighbours of each node start in the targets, plus the end of the last node.
+	private final int[] offsets;
+	// Where the loading docks among the neighbours of each node start.
+	private final int[] stationLimits;
+	private final int[] targets;
+
+	/**
+	 * Give every station and loading dock its id and collect their connections in the graph.
+	 * A connection between two loading docks is ignored, and each connection is only stored once.
+	 *
+	 * @param stations - The stations
+	 * @param loadingDocks - The loading docks
+	 * @param graph - The graph the stations and loading docks lie on
+	 */
+	public Topology(List<Station> stations, List<LoadingDock> loadingDocks, Graph<? extends ConnectionData> graph) {
+		this.stations = stations.toArray(new Station[stations.size()]);
+		this.loadingDocks = loadingDocks.toArray(new LoadingDock[loadingDocks.size()]);
+		int n = this.stations.length + this.loadingDocks.length;
+
+		HashMap<Point, Integer> ids = new HashMap<>();
+		for(int i = 0; i < this.stations.length; i++) {
+			this.stations[i].setId(i);
+			ids.put(this.stations[i].getPosition(), i);
+		}
+		for(int i = 0; i < this.loadingDocks.length; i++) {
+			this.loadingDocks[i].setId(this.stations.length + i);
+			ids.put(this.loadingDocks[i].getPosition(), this.stations.length + i);
+		}
+
+		// Collect the distinct connections in both directions, in the order of the graph.
+		HashSet<Long> seen = new HashSet<>();
+		int[] from = new int[2 * graph.getNumberOfConnections()];
+		int[] to = new int[from.length];
+		int edges = 0;
+		for(Connection<?> c : graph.getConnections()) {
+			Integer a = ids.get(c.from());
+			Integer b = ids.get(c.to());
+			if(a == null || b == null || a.equals(b) || (!isStation(a) && !isStation(b)))
+				continue;
+			if(seen.add((long) a * n + b)) {
+				from[edges] = a;
+				to[edges++] = b;
+			}
+			if(seen.add((long) b * n + a)) {
+				from[edges] = b;
+				to[edges++] = a;
+			}
+		}
+
+		// Count the station and loading dock neighbours per node, and lay them out with the stations first.
+		int[] stationDegrees = new int[n];
+		int[] dockDegrees = new int[n];
+		for(int i = 0; i < edges; i++) {
+			if(isStation(to[i]))
+				stationDegrees[from[i]]++;
+			else
+				dockDegrees[from[i]]++;
+		}
+		offsets = new int[n + 1];
+		stationLimits = new int[n];
+		for(int i = 0; i < n; i++) {
+			stationLimits[i] = offsets[i] + stationDegrees[i];
+			offsets[i + 1] = stationLimits[i] + dockDegrees[i];
+		}
+		targets = new int[edges];
+		int[] nextStation = Arrays.copyOf(offsets, n);
+		int[] nextDock = Arrays.copyOf(stationLimits, n);
+		for(int i = 0; i < edges; i++) {
+			if(isStation(to[i]))
+				targets[nextStation[from[i]]++] = to[i];
+			else
+				targets[nextDock[from[i]]++] = to[i];
+		}
+	}
+
+	/**
+	 * Check whether an id belongs to a station.
+	 *
+	 * @param id - The id
+	 * @return boolean - True for a station, false for a loading dock
+	 */
+	public boolean isStation(int id) {
+		return id < stations.length;
+	}
+
+	/**
+	 * GETTERS.
+	 */
+
+	public Station getStation(int id) {
+		return stations[id];
+	}
+
+	public LoadingDock getLoadingDock(int id) {
+		return loadingDocks[id - stations.length];
+	}
+
+	public int getFirst(int id) {
+		return offsets[id];
+	}
+
+	public int getStationLimit(int id) {
+		return stationLimits[id];
+	}
+
+	public int getEnd(int id) {
+		return offsets[id + 1];
+	}
+
+	public int[] getTargets() {
+		return targets;
+	}
+
+	public int getStationCount() {
+		return stations.length;
+	}
+
+	public int size() {
+		return offsets.length - 1;
+	}
+}
@@ -0,0 +1,13 @@
+package rinsim;
+
+/**
+ * The way a simulation is shown while it runs.
+ */
+public enum ViewMode {
+	// A GUI that waits for the user to start the simulation.
+	INTERACTIVE,
+	// A GUI that starts and closes by itself, at a fixed speed-up.
+	EXPERIMENTING,
+	// No GUI at all: ticks are executed as fast as possible.
+	HEADLESS
+}
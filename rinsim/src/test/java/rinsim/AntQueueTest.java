@@ -0,0 +1,136 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the ants passed through the AntQueue have the same effect as the recursive calls between stations they replaced.
+ */
+public class AntQueueTest {
+
+	// The number of stations along each side of the grid.
+	private static final int SIDE = 20;
+	// The number of ticks with road sign waves. The roadsigns don't expire in this time.
+	private static final int TICKS = 5;
+	private static final int WAVES_PER_TICK = 15;
+
+	/**
+	 * Send random waves of road sign ants through the queue, and the same waves through a recursive copy of Station.makeRoadsign.
+	 * The roadsigns at every station must be the same.
+	 */
+	@Test
+	public void roadSignsMatchRecursiveForwarding() {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createGrid(SIDE, context);
+		HashMap<Station, HashMap<Station, RoadSign>> expected = new HashMap<>();
+		for(Station s : stations)
+			expected.put(s, new HashMap<Station, RoadSign>());
+
+		Random r = new Random(TestFixtures.SEED);
+		for(long time = 0; time < TICKS * RoadSign.DECAY_PERIOD; time += RoadSign.DECAY_PERIOD) {
+			for(int i = 0; i < WAVES_PER_TICK; i++) {
+				Station s = stations.get(r.nextInt(stations.size()));
+				RoadSign rs = new RoadSign();
+				rs.setEndStation(s);
+				rs.setHops(3 + r.nextInt(6));
+				rs.setStrength(1 + r.nextInt(4));
+				s.receiveRoadSignAnt(rs, time);
+				makeRoadsign(expected, s, rs, time);
+				assertEquals(0, context.getAnts().size());
+			}
+		}
+
+		int signs = 0;
+		for(Station s : stations) {
+			for(Station end : stations) {
+				RoadSign actual = s.getRoadsigns().get(end);
+				RoadSign sign = expected.get(s).get(end);
+				if(sign == null) {
+					assertNull(actual);
+					continue;
+				}
+				assertNotNull(actual);
+				assertEquals(sign.getHops(), actual.getHops());
+				assertEquals(sign.getForwardedHops(), actual.getForwardedHops());
+				assertEquals(sign.getStrength(), actual.getStrength(), 0);
+				assertEquals(sign.getRefreshTime(), actual.getRefreshTime());
+				signs++;
+			}
+		}
+		assertTrue(signs > stations.size());
+	}
+
+	/**
+	 * Let pods explore and reserve routes that cross each other. Every reservation sequence must come back to its pod
+	 * as the route it explored, and every station must hold the reservation of the pod.
+	 */
+	@Test
+	public void reservationsAreConfirmedAlongTheRoute() {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createGrid(SIDE, context);
+		int[][] routes = {{0, SIDE * SIDE - 1}, {SIDE - 1, SIDE * (SIDE - 1)}, {SIDE / 2, SIDE * SIDE - SIDE / 2}};
+
+		for(int[] route : routes) {
+			Station start = stations.get(route[0]);
+			Station dest = stations.get(route[1]);
+			Pod p = TestFixtures.createPod(start, context);
+			start.receiveExplorationAnt(dest, 2 * SIDE, p, 0);
+			ExplorationPath best = p.findBestIntentionBasic();
+			assertNotNull(best);
+			p.makeReservations(best);
+			assertEquals(0, context.getAnts().size());
+
+			Station[] path = best.getStations();
+			ArrayList<Reservation> desire = p.getDesire();
+			assertEquals(path.length, desire.size());
+			ExplorationPath step = best;
+			for(int i = path.length - 1; i >= 0; i--, step = step.getParent()) {
+				Reservation res = desire.get(i);
+				assertSame(path[i], res.getStation());
+				assertEquals(step.getTime(), res.getTime().begin());
+				assertSame(res, path[i].getCalendar().getReservation(p));
+			}
+		}
+	}
+
+	/**
+	 * Station.makeRoadsign as it was when every station called its neighbours directly, on separate tables.
+	 */
+	private static void makeRoadsign(HashMap<Station, HashMap<Station, RoadSign>> tables, Station s, RoadSign previous, long time) {
+		HashMap<Station, RoadSign> table = tables.get(s);
+		int hops = previous.getHops();
+		boolean updated = false;
+
+		RoadSign rs = table.get(previous.getEndStation());
+		if(rs != null) {
+			if(rs.getHops() < hops)
+				hops = rs.getHops();
+			if(rs.getRefreshTime() == time && rs.getForwardedHops() >= hops)
+				return;
+			rs.refresh(Math.max(rs.getStrength(time), previous.getStrength()), time);
+			rs.setForwardedHops(hops);
+			updated = true;
+		}
+
+		RoadSign sign = new RoadSign();
+		sign.setHops(hops - 1);
+		sign.setEndStation(previous.getEndStation());
+		sign.refresh(previous.getStrength(), time);
+		sign.setForwardedHops(hops);
+		if(!updated)
+			table.put(previous.getEndStation(), sign);
+
+		if(hops > 0)
+			for(Station n : TestFixtures.getNeighbours(s))
+				makeRoadsign(tables, n, sign, time);
+	}
+}
@@ -0,0 +1,57 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.github.rinde.rinsim.core.Simulator;
+
+/**
+ * Checks that the decisions prepared by a DecisionPhase don't depend on the number of threads that prepare them.
+ * They do differ from the decisions the pods make during their own tick, since all pods decide against the reservations
+ * at the start of the tick, so runs without a DecisionPhase aren't compared.
+ */
+public class DecisionPhaseTest {
+
+	// The simulated time of a run: long enough for the pods to deliver users and to cross each other's routes.
+	private static final long DURATION = 1800000; // 30 minutes
+
+	@Test
+	public void decisionsDontDependOnTheThreads() throws IOException {
+		assertEquals(simulate(2), simulate(4));
+	}
+
+	/**
+	 * Run a headless simulation on a grid of 400 nodes with 30 pods, with the pods preparing their decisions on the given number of threads.
+	 *
+	 * @return String - The users delivered, and the station, passengers, battery and reservations of every pod at the end
+	 */
+	private static String simulate(int threads) throws IOException {
+		RunConfiguration config = new RunConfiguration(0.5, false, 500, 3600000, 0, TestFixtures.SEED, 400, 30, null, 0);
+		PeopleMover pm = new PeopleMover();
+		pm.setDecisionThreads(threads);
+		Simulator simulator = pm.setUp(config, ViewMode.HEADLESS, null);
+		try {
+			while(simulator.getCurrentTime() < DURATION)
+				simulator.tick();
+		} finally {
+			pm.stopWorkers();
+		}
+
+		SimulationContext context = pm.getContext();
+		assertTrue(context.getUsersOnTime() + context.getUsersLate() > 0);
+		StringBuilder state = new StringBuilder();
+		state.append(context.getUsersOnTime()).append(',').append(context.getUsersLate()).append('\n');
+		for(Pod p : pm.getPods()) {
+			state.append(p.getCurrentStation() == null ? -1 : p.getCurrentStation().getId()).append(',')
+				.append(p.getPassengers().size()).append(',').append(p.getBattery());
+			for(Reservation r : p.getDesire())
+				state.append(',').append(r.getStation().getId()).append('@').append(r.getTime().begin());
+			state.append('\n');
+		}
+		return state.toString();
+	}
+}
@@ -0,0 +1,95 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compares the streaming statistics of DelayStatistics with exact statistics of the same delays.
+ */
+public class DelayStatisticsTest {
+
+	// The number of delays in the large sample.
+	private static final int DELAYS = 200000;
+	private static final double[] PERCENTILES = {0.01, 0.1, 0.5, 0.9, 0.95, 0.99, 0.999, 1};
+
+	@Test
+	public void emptyStatisticsHaveNoMean() {
+		DelayStatistics stats = new DelayStatistics();
+		assertEquals(0, stats.getCount());
+		assertTrue(Double.isNaN(stats.getMean()));
+		assertTrue(Double.isNaN(stats.getVariance()));
+		assertEquals(0, stats.getPercentile(0.5));
+	}
+
+	@Test
+	public void smallDelaysAreExact() {
+		DelayStatistics stats = new DelayStatistics();
+		for(int i = 1; i <= 20; i++)
+			stats.record(i);
+		assertEquals(10.5, stats.getMean(), 1e-12);
+		// The population variance of 1..20.
+		assertEquals((20 * 20 - 1) / 12.0, stats.getVariance(), 1e-12);
+		assertEquals(10, stats.getPercentile(0.5));
+		assertEquals(19, stats.getPercentile(0.95));
+		assertEquals(20, stats.getPercentile(1));
+		assertEquals(20, stats.getMax());
+	}
+
+	@Test
+	public void negativeDelaysCountAsZero() {
+		DelayStatistics stats = new DelayStatistics();
+		stats.record(-5);
+		stats.record(4);
+		assertEquals(2.0, stats.getMean(), 1e-12);
+		assertEquals(0, stats.getPercentile(0.5));
+	}
+
+	@Test
+	public void largestDelayFitsTheHistogram() {
+		DelayStatistics stats = new DelayStatistics();
+		stats.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, stats.getMax());
+		assertTrue(stats.getPercentile(1) >= Long.MAX_VALUE - Long.MAX_VALUE / 64);
+	}
+
+	/**
+	 * Record log-uniform delays between 1 ms and about 3 hours, and compare with the sorted delays and a two-pass mean and variance.
+	 */
+	@Test
+	public void matchesExactStatistics() {
+		Random r = new Random(16);
+		long[] delays = new long[DELAYS];
+		DelayStatistics stats = new DelayStatistics();
+		for(int i = 0; i < DELAYS; i++) {
+			delays[i] = (long) Math.exp(r.nextDouble() * Math.log(1e7));
+			stats.record(delays[i]);
+		}
+
+		double mean = 0;
+		for(long d : delays)
+			mean += d;
+		mean /= DELAYS;
+		double variance = 0;
+		for(long d : delays)
+			variance += (d - mean) * (d - mean);
+		variance /= DELAYS;
+
+		assertEquals(DELAYS, stats.getCount());
+		assertEquals(mean, stats.getMean(), mean * 1e-9);
+		assertEquals(variance, stats.getVariance(), variance * 1e-9);
+
+		// A percentile lies in the same bucket as the exact one. A bucket is at most 1/32 of its lowest value wide,
+		// and the middle of the bucket is returned.
+		Arrays.sort(delays);
+		for(double p : PERCENTILES) {
+			long exact = delays[(int) Math.max(1, Math.ceil(p * DELAYS)) - 1];
+			assertEquals("Percentile " + p, exact, stats.getPercentile(p), exact / 64.0 + 1);
+		}
+		assertEquals(delays[DELAYS - 1], stats.getMax());
+	}
+}
@@ -0,0 +1,97 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compares the assignment of the Dispatcher (the Hungarian method) with the best assignment found by trying every one.
+ */
+public class DispatcherTest {
+
+	// The number of random matrices per shape.
+	private static final int MATRICES = 200;
+
+	@Test
+	public void assignsSquareMatricesOptimally() {
+		Random r = new Random(1);
+		for(int n = 1; n <= 6; n++)
+			for(int i = 0; i < MATRICES; i++)
+				check(randomCosts(r, n, n, 0));
+	}
+
+	@Test
+	public void assignsRectangularMatricesOptimally() {
+		Random r = new Random(2);
+		for(int n = 1; n <= 5; n++)
+			for(int m = n + 1; m <= 7; m++)
+				for(int i = 0; i < MATRICES; i++)
+					check(randomCosts(r, n, m, 0));
+	}
+
+	@Test
+	public void assignsMatricesWithUnreachableEntriesOptimally() {
+		Random r = new Random(3);
+		for(int n = 1; n <= 5; n++)
+			for(int m = n; m <= 7; m++)
+				for(int i = 0; i < MATRICES; i++)
+					check(randomCosts(r, n, m, 0.4));
+	}
+
+	@Test
+	public void avoidsUnreachableEntriesWhenPossible() {
+		int u = DistanceTable.UNREACHABLE;
+		int[][] cost = {
+				{u, 1, u},
+				{2, u, u}};
+		int[] match = Dispatcher.assign(cost);
+		assertEquals(1, match[0]);
+		assertEquals(0, match[1]);
+	}
+
+	/**
+	 * Check that the assignment gives every row a distinct column, at the lowest total cost.
+	 */
+	private static void check(int[][] cost) {
+		int[] match = Dispatcher.assign(cost);
+		boolean[] used = new boolean[cost[0].length];
+		long total = 0;
+		for(int i = 0; i < cost.length; i++) {
+			assertTrue("Column " + match[i] + " is assigned twice.", !used[match[i]]);
+			used[match[i]] = true;
+			total += cost[i][match[i]];
+		}
+		assertEquals(bruteForce(cost, 0, new boolean[cost[0].length]), total);
+	}
+
+	/**
+	 * Find the lowest total cost of assigning the rows from the given one on to distinct unused columns.
+	 */
+	private static long bruteForce(int[][] cost, int row, boolean[] used) {
+		if(row == cost.length)
+			return 0;
+		long best = Long.MAX_VALUE;
+		for(int j = 0; j < used.length; j++) {
+			if(used[j])
+				continue;
+			used[j] = true;
+			best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used));
+			used[j] = false;
+		}
+		return best;
+	}
+
+	/**
+	 * Create a matrix of hop distances, in which a share of the entries is unreachable.
+	 */
+	private static int[][] randomCosts(Random r, int rows, int columns, double unreachable) {
+		int[][] cost = new int[rows][columns];
+		for(int i = 0; i < rows; i++)
+			for(int j = 0; j < columns; j++)
+				cost[i][j] = r.nextDouble() < unreachable ? DistanceTable.UNREACHABLE : r.nextInt(20);
+		return cost;
+	}
+}
@@ -0,0 +1,183 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.junit.Test;
+
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.Point;
+import com.github.rinde.rinsim.geom.TableGraph;
+
+/**
+ * Compares the DistanceTable with breadth-first searches over the neighbour lists of the stations.
+ */
+public class DistanceTableTest {
+
+	@Test
+	public void gridDistancesMatchBreadthFirstSearch() {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createGrid(15, context);
+		checkDistances(stations, context.getDistances());
+		// On a grid the distance is the Manhattan distance. The grid points lie 2 units apart.
+		assertEquals(28, context.getDistances().getHops(at(stations, 0, 0), at(stations, 28, 28)));
+		assertEquals(9, context.getDistances().getHops(at(stations, 2, 4), at(stations, 10, 14)));
+	}
+
+	@Test
+	public void nextHopsFollowShortestPaths() {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createGrid(12, context);
+		DistanceTable distances = context.getDistances();
+		for(Station to : stations) {
+			assertNull(distances.getNextHop(to, to));
+			for(Station from : stations) {
+				int hops = distances.getHops(from, to);
+				Station current = from;
+				for(int i = hops; i > 0; i--) {
+					Station next = distances.getNextHop(current, to);
+					assertNotNull(next);
+					assertTrue(TestFixtures.getNeighbours(current).contains(next));
+					assertEquals(i - 1, distances.getHops(next, to));
+					current = next;
+				}
+				assertTrue(current == to);
+			}
+		}
+	}
+
+	@Test
+	public void longDistancesSaturate() {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> line = TestFixtures.createStations(createLine(200, 0), context);
+		DistanceTable distances = context.getDistances();
+		assertEquals(100, distances.getHops(at(line, 0, 0), at(line, 100, 0)));
+		assertEquals(DistanceTable.MAX_HOPS, distances.getHops(at(line, 0, 0), at(line, DistanceTable.MAX_HOPS, 0)));
+		assertEquals(DistanceTable.MAX_HOPS, distances.getHops(at(line, 0, 0), at(line, 199, 0)));
+		assertEquals(DistanceTable.MAX_HOPS, distances.getHops(at(line, 199, 0), at(line, 0, 0)));
+
+		// Up to the cap the next hop lies on a shortest path. Beyond it, it isn't known.
+		assertEquals(at(line, 125, 0), distances.getNextHop(at(line, 126, 0), at(line, 0, 0)));
+		assertEquals(at(line, 1, 0), distances.getNextHop(at(line, 0, 0), at(line, 126, 0)));
+		assertNull(distances.getNextHop(at(line, 127, 0), at(line, 0, 0)));
+		assertNull(distances.getNextHop(at(line, 0, 0), at(line, 199, 0)));
+		assertNull(distances.getNextHop(at(line, 199, 0), at(line, 0, 0)));
+	}
+
+	@Test
+	public void separateComponentsAreUnreachable() {
+		Graph<ConnectionData> graph = createLine(5, 0);
+		Graph<ConnectionData> other = createLine(5, 10);
+		for(Point p : other.getNodes())
+			for(Point q : other.getNodes())
+				if(other.hasConnection(p, q))
+					graph.addConnection(p, q);
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createStations(graph, context);
+		DistanceTable distances = context.getDistances();
+		checkDistances(stations, distances);
+
+		Station a = at(stations, 0, 0);
+		Station b = at(stations, 4, 10);
+		assertEquals(DistanceTable.UNREACHABLE, distances.getHops(a, b));
+		assertNull(distances.getNextHop(a, b));
+	}
+
+	@Test
+	public void loadingDocksAreFoundFromEveryStation() {
+		Graph<ConnectionData> graph = createLine(10, 0);
+		Point dock = new Point(10, 0);
+		graph.addConnection(new Point(9, 0), dock);
+		graph.addConnection(dock, new Point(9, 0));
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = new ArrayList<>();
+		for(Point p : graph.getNodes())
+			if(!p.equals(dock))
+				stations.add(new Station(p, context));
+		Topology topology = new Topology(stations, Arrays.asList(new LoadingDock(dock, 1, context)), graph);
+		context.setTopology(topology);
+		DistanceTable distances = new DistanceTable(topology);
+		for(Station s : stations) {
+			assertEquals(9 - (int) s.getPosition().x, distances.getHopsToLoadingDock(s));
+			assertEquals(s.getPosition().x == 9, s.getLoadingDock() != null);
+		}
+	}
+
+	/**
+	 * Above the precompute limit the rows are computed on demand and only some are kept. Ask for more rows than are kept,
+	 * twice, so that rows are evicted and computed again.
+	 */
+	@Test
+	public void cachedRowsMatchPrecomputedRows() {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createGrid(20, context);
+		DistanceTable precomputed = context.getDistances();
+
+		DistanceTable cached = new DistanceTable(context.getTopology(), 100);
+		for(int round = 0; round < 2; round++)
+			for(Station to : stations)
+				for(Station from : stations)
+					assertEquals(precomputed.getHops(from, to), cached.getHops(from, to));
+		checkDistances(stations, cached);
+		for(Station to : stations)
+			assertEquals(precomputed.getNextHop(stations.get(0), to), cached.getNextHop(stations.get(0), to));
+	}
+
+	/**
+	 * Check every distance against a breadth-first search over the neighbours.
+	 */
+	private static void checkDistances(ArrayList<Station> stations, DistanceTable distances) {
+		for(Station from : stations) {
+			int[] expected = search(stations, from);
+			for(Station to : stations)
+				assertEquals(expected[to.getId()], distances.getHops(from, to));
+		}
+	}
+
+	private static int[] search(ArrayList<Station> stations, Station from) {
+		int[] hops = new int[stations.size()];
+		Arrays.fill(hops, DistanceTable.UNREACHABLE);
+		hops[from.getId()] = 0;
+		LinkedList<Station> queue = new LinkedList<>();
+		queue.add(from);
+		while(!queue.isEmpty()) {
+			Station s = queue.poll();
+			for(Station n : TestFixtures.getNeighbours(s)) {
+				if(hops[n.getId()] == DistanceTable.UNREACHABLE) {
+					hops[n.getId()] = Math.min(hops[s.getId()] + 1, DistanceTable.MAX_HOPS);
+					queue.add(n);
+				}
+			}
+		}
+		return hops;
+	}
+
+	/**
+	 * Find the station at a position.
+	 */
+	private static Station at(ArrayList<Station> stations, double x, double y) {
+		for(Station s : stations)
+			if(s.getPosition().equals(new Point(x, y)))
+				return s;
+		throw new IllegalArgumentException("No station at " + x + ", " + y);
+	}
+
+	/**
+	 * Create a line of stations along the x-axis, one unit apart.
+	 */
+	private static Graph<ConnectionData> createLine(int length, double y) {
+		Graph<ConnectionData> g = new TableGraph<>();
+		for(int x = 0; x + 1 < length; x++) {
+			g.addConnection(new Point(x, y), new Point(x + 1, y));
+			g.addConnection(new Point(x + 1, y), new Point(x, y));
+		}
+		return g;
+	}
+}
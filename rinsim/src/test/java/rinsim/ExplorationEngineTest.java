@@ -0,0 +1,187 @@
+package rinsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.Point;
+import com.github.rinde.rinsim.geom.TableGraph;
+import com.github.rinde.rinsim.util.TimeWindow;
+
+/**
+ * Checks the intentions found by the ExplorationEngine against the flooding of exploration ants it replaced.
+ */
+public class ExplorationEngineTest {
+
+	private static final long R = Station.RESERVATION_TIME;
+	// The number of stations along each side of the grids.
+	private static final int SIDE = 5;
+	private static final int EXPLORATIONS = 300;
+	// The reservation time of a pod that waits at the end of its route.
+	private static final long WAITING = 999999999999999999L;
+
+	/**
+	 * Explore random routes on grids with random reservations of other pods, with the engine and with a recursive copy of
+	 * the flooding. The engine must find the best intention of the flooding, and every intention it finds must be one
+	 * of the flooding, with the same reservation times.
+	 */
+	@Test
+	public void intentionsMatchRecursiveFlooding() {
+		Random r = new Random(TestFixtures.SEED);
+		int found = 0;
+		for(int i = 0; i < EXPLORATIONS; i++) {
+			SimulationContext context = TestFixtures.createContext();
+			ArrayList<Station> stations = TestFixtures.createGrid(SIDE, context);
+			Pod other = new Pod(new Point(-1, -1), TestFixtures.POD_CAPACITY, null, TestFixtures.SEED, context);
+			for(Station s : stations) {
+				int count = r.nextInt(4);
+				for(int j = 0; j < count; j++) {
+					long begin = (long) (r.nextDouble() * 12 * R);
+					reserve(s, other, begin, r.nextInt(20) == 0 ? WAITING : begin + R + (long) (r.nextDouble() * 2 * R));
+				}
+			}
+
+			Station start = stations.get(r.nextInt(stations.size()));
+			Station dest = stations.get(r.nextInt(stations.size()));
+			if(start == dest)
+				continue;
+			Pod pod = TestFixtures.createPod(start, context);
+			int hops = context.getDistances().getHops(start, dest) + r.nextInt(4);
+
+			ArrayList<LinkedHashMap<Station, Long>> expected = new ArrayList<>();
+			forwardExploration(start, new LinkedHashMap<Station, Long>(), dest, hops, pod, 0, expected);
+			HashMap<List<Station>, LinkedHashMap<Station, Long>> byRoute = new HashMap<>();
+			long best = Long.MAX_VALUE;
+			for(LinkedHashMap<Station, Long> intention : expected) {
+				byRoute.put(new ArrayList<>(intention.keySet()), intention);
+				best = Math.min(best, intention.get(dest));
+			}
+
+			ArrayList<ExplorationPath> intentions = ExplorationEngine.explore(start, dest, hops, pod, 0);
+			long actual = Long.MAX_VALUE;
+			for(ExplorationPath intention : intentions) {
+				LinkedHashMap<Station, Long> route = byRoute.get(Arrays.asList(intention.getStations()));
+				assertNotNull(route);
+				ExplorationPath step = intention;
+				for(int j = intention.size() - 1; j >= 0; j--, step = step.getParent())
+					assertEquals((long) route.get(step.getStation()), step.getTime());
+				actual = Math.min(actual, intention.getTime());
+			}
+			assertEquals(best, actual);
+			if(!intentions.isEmpty())
+				found++;
+		}
+		assertTrue(found > EXPLORATIONS / 2);
+	}
+
+	/**
+	 * The route S, X, D arrives at X first, in a gap before the reservation of another pod, but can't leave X before that
+	 * reservation starts because D is reserved as well. The route S, P, X, D arrives at X later, after the reservation,
+	 * and gets through. It must not be dropped in favour of the earlier arrival.
+	 */
+	@Test
+	public void laterArrivalAfterAGapIsNotDropped() {
+		Point s = new Point(0, 0), x = new Point(1, 0), d = new Point(2, 0), p = new Point(0, 1);
+		Graph<ConnectionData> graph = new TableGraph<>();
+		connect(graph, s, x);
+		connect(graph, s, p);
+		connect(graph, p, x);
+		connect(graph, x, d);
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createStations(graph, context);
+		Station start = at(stations, s), via = at(stations, p), gap = at(stations, x), dest = at(stations, d);
+
+		Pod pod = TestFixtures.createPod(start, context);
+		Pod other = new Pod(new Point(9, 9), TestFixtures.POD_CAPACITY, null, TestFixtures.SEED, context);
+		reserve(gap, other, 3 * R, 5 * R);
+		reserve(dest, other, 3 * R, 4 * R);
+
+		ArrayList<ExplorationPath> intentions = ExplorationEngine.explore(start, dest, 3, pod, 0);
+		assertEquals(1, intentions.size());
+		ExplorationPath intention = intentions.get(0);
+		assertArrayEquals(new Station[] {start, via, gap, dest}, intention.getStations());
+		assertEquals(6 * R, intention.getTime());
+		assertEquals(5 * R, intention.getParent().getTime());
+		assertEquals(intention.getTime(), ExplorationEngine.time(intention.getStations(), pod, 0).getTime());
+	}
+
+	/**
+	 * Station.forwardExploration as it was when every station flooded its neighbours with exploration ants, on a separate
+	 * list of intentions, and with the rules ExplorationEngine reserves stations by: the destination is reserved after all
+	 * other reservations, and a station has to be free until the next one can be entered.
+	 */
+	private static void forwardExploration(Station s, LinkedHashMap<Station, Long> prev, Station dest, int hop, Pod pod, long currentTime,
+			ArrayList<LinkedHashMap<Station, Long>> intentions) {
+		// If the hops have run out or a loop has been detected: kill the chain.
+		if((hop == 0 && s != dest) || prev.containsKey(s))
+			return;
+
+		Station prevStation = null;
+		long prevTime = currentTime;
+		for(Entry<Station, Long> e : prev.entrySet()) {
+			prevStation = e.getKey();
+			prevTime = e.getValue();
+		}
+
+		long resTime;
+		if(s == dest) {
+			resTime = s.checkPossibleEndReservationTime(prevTime + R).begin();
+			if(resTime > 9999999999999999L)
+				return;
+		} else if(s.getPod() == pod) {
+			resTime = currentTime + R;
+		} else {
+			resTime = s.checkPossibleReservationTime(prevTime + R).begin();
+			if(resTime > 99999999999999L)
+				return;
+		}
+		if(prevStation != null && prevStation.getPod() != pod && !prevStation.isFree(prevTime, resTime))
+			return;
+		prev.put(s, resTime);
+
+		if(s == dest) {
+			intentions.add(prev);
+			return;
+		}
+		for(Station n : TestFixtures.getNeighbours(s))
+			forwardExploration(n, new LinkedHashMap<>(prev), dest, hop - 1, pod, currentTime, intentions);
+	}
+
+	/**
+	 * Reserve a station for another pod.
+	 */
+	private static void reserve(Station s, Pod pod, long begin, long end) {
+		s.getCalendar().add(new Reservation(s, null, TimeWindow.create(begin, end), pod, end));
+	}
+
+	/**
+	 * Find the station at a position.
+	 */
+	private static Station at(ArrayList<Station> stations, Point p) {
+		for(Station s : stations)
+			if(s.getPosition().equals(p))
+				return s;
+		throw new IllegalArgumentException("No station at " + p);
+	}
+
+	/**
+	 * Connect two points in both directions.
+	 */
+	private static void connect(Graph<ConnectionData> graph, Point a, Point b) {
+		graph.addConnection(a, b);
+		graph.addConnection(b, a);
+	}
+}
@@ -0,0 +1,114 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.rinde.rinsim.geom.Connection;
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.Point;
+
+/**
+ * Checks the graphs read from edge lists and from the binary format.
+ */
+public class GraphLoaderTest {
+
+	// The number of nodes along each side of the grid that is written in the binary format.
+	private static final int SIDE = 6;
+
+	@Test
+	public void edgeListRoadsGoBothWays() throws IOException {
+		File f = write(".txt",
+			"# A triangle with a tail",
+			"0 0 1 0",
+			"",
+			"  1 0   1 1  ",
+			"1 1 0 0",
+			"# Roads that are already there and roads to the same point are skipped",
+			"1 0 0 0",
+			"2.5 1 2.5 1",
+			"1 1 2.5 1");
+		try {
+			Graph<ConnectionData> g = new GraphLoader().load(f.getPath());
+			assertEquals(4, g.getNumberOfNodes());
+			assertEquals(8, g.getNumberOfConnections());
+			assertRoad(g, new Point(0, 0), new Point(1, 0));
+			assertRoad(g, new Point(1, 0), new Point(1, 1));
+			assertRoad(g, new Point(1, 1), new Point(0, 0));
+			assertRoad(g, new Point(1, 1), new Point(2.5, 1));
+		} finally {
+			f.delete();
+		}
+	}
+
+	@Test
+	public void edgeListLineWithoutFourCoordinatesIsReported() throws IOException {
+		assertError(write(".txt", "0 0 1 0", "# comment", "1 0 1"), "line 3");
+	}
+
+	@Test
+	public void edgeListLineWithoutNumbersIsReported() throws IOException {
+		assertError(write(".txt", "0 0 1 0", "1 0 one 1"), "line 2");
+	}
+
+	@Test
+	public void binaryGraphKeepsNodesAndRoads() throws IOException {
+		Graph<ConnectionData> grid = new GraphModel().getGridGraph(SIDE, SIDE);
+		File f = File.createTempFile("graph", ".bin");
+		try {
+			GraphLoader loader = new GraphLoader();
+			loader.writeBinary(grid, f);
+			Graph<ConnectionData> g = loader.load(f.getPath());
+			assertEquals(grid.getNodes(), g.getNodes());
+			assertEquals(grid.getNumberOfConnections(), g.getNumberOfConnections());
+			for(Connection<ConnectionData> c : grid.getConnections())
+				assertRoad(g, c.from(), c.to());
+		} finally {
+			f.delete();
+		}
+	}
+
+	@Test
+	public void binaryGraphWithoutMagicNumberIsReported() throws IOException {
+		assertError(write(".bin", "0 0 1 0"), "binary format");
+	}
+
+	/**
+	 * Check that a graph holds a road in both directions.
+	 */
+	private static void assertRoad(Graph<ConnectionData> g, Point a, Point b) {
+		assertTrue(a + " -> " + b, g.hasConnection(a, b));
+		assertTrue(b + " -> " + a, g.hasConnection(b, a));
+	}
+
+	/**
+	 * Check that loading a file fails with a message that mentions where, and delete the file.
+	 */
+	private static void assertError(File f, String where) {
+		try {
+			new GraphLoader().load(f.getPath());
+			throw new AssertionError("A malformed graph was loaded.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(where));
+		} finally {
+			f.delete();
+		}
+	}
+
+	/**
+	 * Write lines to a temporary file.
+	 */
+	private static File write(String extension, String... lines) throws IOException {
+		File f = File.createTempFile("graph", extension);
+		Files.write(f.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+		return f;
+	}
+}
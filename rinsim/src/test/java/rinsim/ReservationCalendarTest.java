@@ -0,0 +1,175 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.rinde.rinsim.geom.Point;
+import com.github.rinde.rinsim.util.TimeWindow;
+
+/**
+ * Checks the busy periods of a ReservationCalendar as reservations are added, removed and expire.
+ */
+public class ReservationCalendarTest {
+
+	private ReservationCalendar calendar;
+	private Pod pod1;
+	private Pod pod2;
+
+	@Before
+	public void setUp() {
+		calendar = new ReservationCalendar();
+		pod1 = new Pod(new Point(0, 0), 4, null, 1, null);
+		pod2 = new Pod(new Point(0, 0), 4, null, 2, null);
+	}
+
+	@Test
+	public void overlappingWindowsFormOneBlock() {
+		calendar.add(reservation(pod1, 100, 200, 1000));
+		calendar.add(reservation(pod2, 150, 300, 1000));
+		assertFalse(calendar.isFree(250, 260));
+		assertTrue(calendar.isFree(300, 400));
+		assertTrue(calendar.isFree(0, 100));
+		assertEquals(300, calendar.findFreeSlot(120, 50));
+		assertEquals(0, calendar.findFreeSlot(0, 100));
+		assertEquals(300, calendar.findFreeSlot(0, 101));
+	}
+
+	@Test
+	public void adjacentWindowsLeaveNoGap() {
+		calendar.add(reservation(pod1, 100, 200, 1000));
+		calendar.add(reservation(pod2, 200, 300, 1000));
+		assertFalse(calendar.isFree(190, 210));
+		assertEquals(300, calendar.findFreeSlot(150, 10));
+
+		// Removing either half frees exactly that half.
+		calendar.remove(pod1);
+		assertTrue(calendar.isFree(100, 200));
+		assertFalse(calendar.isFree(200, 201));
+	}
+
+	@Test
+	public void removalInTheMiddleSplitsTheBlock() {
+		Reservation middle = reservation(pod2, 200, 300, 1000);
+		calendar.add(reservation(pod1, 100, 210, 1000));
+		calendar.add(middle);
+		calendar.add(reservation(pod1, 290, 400, 1000));
+		assertFalse(calendar.isFree(220, 280));
+
+		calendar.remove(middle);
+		assertTrue(calendar.isFree(210, 290));
+		assertFalse(calendar.isFree(209, 210));
+		assertFalse(calendar.isFree(290, 291));
+		assertEquals(210, calendar.findFreeSlot(150, 80));
+		assertEquals(400, calendar.findFreeSlot(150, 81));
+		assertEquals(2, calendar.size());
+	}
+
+	@Test
+	public void removalOfACoveredWindowKeepsTheBlock() {
+		Reservation inner = reservation(pod2, 150, 250, 1000);
+		calendar.add(reservation(pod1, 100, 300, 1000));
+		calendar.add(inner);
+		calendar.remove(inner);
+		assertFalse(calendar.isFree(150, 250));
+		assertEquals(300, calendar.findFreeSlot(100, 1));
+	}
+
+	@Test
+	public void removalOfAPodRemovesAllItsReservations() {
+		calendar.add(reservation(pod1, 100, 200, 1000));
+		calendar.add(reservation(pod2, 150, 250, 1000));
+		calendar.add(reservation(pod1, 240, 300, 1000));
+		calendar.remove(pod1);
+		assertEquals(1, calendar.size());
+		assertNull(calendar.getReservation(pod1));
+		assertTrue(calendar.isFree(100, 150));
+		assertTrue(calendar.isFree(250, 300));
+		assertFalse(calendar.isFree(150, 250));
+	}
+
+	@Test
+	public void expiredReservationsAreRemoved() {
+		calendar.add(reservation(pod1, 100, 200, 500));
+		Reservation kept = reservation(pod2, 150, 250, 900);
+		calendar.add(kept);
+
+		calendar.expire(500);
+		assertEquals(2, calendar.size());
+		calendar.expire(501);
+		assertEquals(1, calendar.size());
+		assertSame(kept, calendar.getReservation(pod2));
+		assertTrue(calendar.isFree(100, 150));
+		assertFalse(calendar.isFree(150, 250));
+
+		calendar.expire(1000);
+		assertTrue(calendar.isEmpty());
+		assertTrue(calendar.isFree(0, 1000));
+		assertEquals(0, calendar.findOpenSlot(0));
+	}
+
+	@Test
+	public void findOpenSlotStartsAfterTheLastReservation() {
+		calendar.add(reservation(pod1, 100, 200, 1000));
+		calendar.add(reservation(pod2, 500, 600, 1000));
+		assertEquals(600, calendar.findOpenSlot(0));
+		assertEquals(700, calendar.findOpenSlot(700));
+	}
+
+	/**
+	 * Add and remove random reservations, and compare every answer with a plain list of the windows.
+	 */
+	@Test
+	public void matchesAListOfWindows() {
+		Random r = new Random(7);
+		ArrayList<Reservation> added = new ArrayList<>();
+		for(int step = 0; step < 5000; step++) {
+			if(added.isEmpty() || r.nextInt(3) > 0) {
+				long begin = r.nextInt(2000);
+				Reservation res = reservation(r.nextBoolean() ? pod1 : pod2, begin, begin + 1 + r.nextInt(150), 0);
+				calendar.add(res);
+				added.add(res);
+			} else {
+				calendar.remove(added.remove(r.nextInt(added.size())));
+			}
+			assertEquals(added.size(), calendar.size());
+
+			long time = r.nextInt(2200);
+			long duration = 1 + r.nextInt(100);
+			assertEquals(isFree(added, time, time + duration), calendar.isFree(time, time + duration));
+			assertEquals(findFreeSlot(added, time, duration), calendar.findFreeSlot(time, duration));
+		}
+	}
+
+	private static boolean isFree(ArrayList<Reservation> windows, long begin, long end) {
+		for(Reservation res : windows)
+			if(res.getTime().begin() < end && begin < res.getTime().end())
+				return false;
+		return true;
+	}
+
+	private static long findFreeSlot(ArrayList<Reservation> windows, long time, long duration) {
+		// The earliest slot starts at the requested time or at the end of a window.
+		long best = Long.MAX_VALUE;
+		if(isFree(windows, time, time + duration))
+			return time;
+		for(Reservation res : windows) {
+			long candidate = res.getTime().end();
+			if(candidate >= time && candidate < best && isFree(windows, candidate, candidate + duration))
+				best = candidate;
+		}
+		return best;
+	}
+
+	private static Reservation reservation(Pod pod, long begin, long end, long expiration) {
+		return new Reservation(null, null, TimeWindow.create(begin, end), pod, expiration);
+	}
+}
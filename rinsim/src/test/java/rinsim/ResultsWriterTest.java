@@ -0,0 +1,73 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks the records that are appended to an existing CSV file.
+ */
+public class ResultsWriterTest {
+
+	@Test
+	public void appendingToACsvFileKeepsItsHeader() throws IOException {
+		File f = File.createTempFile("results", ".csv");
+		try {
+			write(f, record("run", 1));
+			write(f, record("run", 2));
+			List<String> lines = Files.readAllLines(f.toPath(), StandardCharsets.UTF_8);
+			assertEquals(3, lines.size());
+			assertEquals("type,seed", lines.get(0));
+			assertEquals("run,1", lines.get(1));
+			assertEquals("run,2", lines.get(2));
+		} finally {
+			f.delete();
+		}
+	}
+
+	@Test
+	public void appendingOtherFieldsToACsvFileFails() throws IOException {
+		File f = File.createTempFile("results", ".csv");
+		try {
+			write(f, record("run", 1));
+			LinkedHashMap<String, Object> other = record("run", 2);
+			other.put("dispatchWindow", 0);
+			try {
+				write(f, other);
+				throw new AssertionError("A record with other fields was appended.");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().contains("type,seed"));
+			}
+			assertEquals(2, Files.readAllLines(f.toPath(), StandardCharsets.UTF_8).size());
+		} finally {
+			f.delete();
+		}
+	}
+
+	private static LinkedHashMap<String, Object> record(String type, long seed) {
+		LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+		fields.put("type", type);
+		fields.put("seed", seed);
+		return fields;
+	}
+
+	/**
+	 * Open the file, append a record and close it again.
+	 */
+	private static void write(File f, LinkedHashMap<String, Object> fields) throws IOException {
+		ResultsWriter results = new ResultsWriter(f.getPath());
+		try {
+			results.write(fields);
+		} finally {
+			results.close();
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package rinsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.rinde.rinsim.core.model.pdp.Parcel;
+
+/**
+ * Checks the partitioning of the stations into regions, and the roadsigns the regions build.
+ */
+public class StationPhaseTest {
+
+	// The number of stations along each side of the grid.
+	private static final int SIDE = 30;
+	private static final int TICKS = 20;
+
+	@Test
+	public void everyStationBelongsToOneRegion() {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createGrid(SIDE, context);
+		StationPhase phase = new StationPhase(stations, 7, "test");
+		try {
+			HashSet<Station> seen = new HashSet<>();
+			for(Region r : phase.getRegions()) {
+				assertTrue(Math.abs(r.getStations().size() - stations.size() / 7) <= 1);
+				for(Station s : r.getStations()) {
+					assertTrue(seen.add(s));
+					assertSame(r, s.getRegion());
+				}
+			}
+			assertEquals(stations.size(), seen.size());
+		} finally {
+			phase.close();
+		}
+	}
+
+	@Test
+	public void oneRegionMatchesTheTick() {
+		assertEquals(simulate(0), simulate(1));
+	}
+
+	@Test
+	public void regionsAreReproducible() {
+		assertEquals(simulate(4), simulate(4));
+		assertEquals(simulate(7), simulate(7));
+	}
+
+	/**
+	 * Let random users wait at the stations for some ticks, with the stations updated by a StationPhase, or as in the tick
+	 * of PeopleMover if there are no regions.
+	 *
+	 * @return String - The roadsigns at every station
+	 */
+	private static String simulate(int regions) {
+		SimulationContext context = TestFixtures.createContext();
+		ArrayList<Station> stations = TestFixtures.createGrid(SIDE, context);
+		StationPhase phase = regions > 0 ? new StationPhase(stations, regions, "test") : null;
+		Random r = new Random(TestFixtures.SEED);
+		try {
+			for(long time = 0; time < TICKS * RoadSign.DECAY_PERIOD; time += RoadSign.DECAY_PERIOD) {
+				for(int i = 0; i < 20; i++) {
+					Station start = stations.get(r.nextInt(stations.size()));
+					Station dest = stations.get(r.nextInt(stations.size()));
+					start.getPassengers().add(new User(Parcel.builder(start.getPosition(), dest.getPosition()).buildDTO(), time, dest));
+				}
+				for(int i = 0; i < 10; i++)
+					stations.get(r.nextInt(stations.size())).getPassengers().clear();
+
+				if(phase != null)
+					phase.run(time, true);
+				else
+					PeopleMover.tickStations(context, stations, time, true);
+			}
+		} finally {
+			if(phase != null)
+				phase.close();
+		}
+
+		StringBuilder signs = new StringBuilder();
+		for(Station s : stations) {
+			for(Station end : stations) {
+				RoadSign rs = s.getRoadsigns().get(end);
+				if(rs != null)
+					signs.append(s.getId()).append('>').append(end.getId()).append(':').append(rs.getHops()).append(',')
+						.append(rs.getForwardedHops()).append(',').append(rs.getStrength()).append(',').append(rs.getRefreshTime()).append('\n');
+			}
+		}
+		return signs.toString();
+	}
+}
@@ -0,0 +1,96 @@
+package rinsim;
+
+import java.util.ArrayList;
+
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.Point;
+
+/**
+ * Builds connected stations and pods without a simulator, the same way PeopleMover connects them.
+ * The benchmarks use these fixtures as well, through the test jar of this module.
+ */
+class TestFixtures {
+
+	// The seed of the configuration and the pods.
+	static final long SEED = 123;
+	// The number of seats per pod.
+	static final int POD_CAPACITY = 4;
+
+	private TestFixtures() {}
+
+	/**
+	 * Create a configuration whose runs don't stop by themselves.
+	 *
+	 * @param advancedPlanning - Whether the sophisticated task planning algorithm is used
+	 * @return RunConfiguration
+	 */
+	static RunConfiguration createConfiguration(boolean advancedPlanning) {
+		return new RunConfiguration(0.05, advancedPlanning, 30, 3600000, 0, SEED);
+	}
+
+	/**
+	 * Create a context whose runs don't stop by themselves.
+	 *
+	 * @return SimulationContext
+	 */
+	static SimulationContext createContext() {
+		return new SimulationContext(createConfiguration(false));
+	}
+
+	/**
+	 * Create a station on every node of a square grid, connect the stations and compute their distances.
+	 *
+	 * @param side - The number of stations along each side of the grid
+	 * @param context - The context the stations belong to
+	 * @return ArrayList<Station> - The stations, in the order of the nodes of the graph
+	 */
+	static ArrayList<Station> createGrid(int side, SimulationContext context) {
+		return createStations(new GraphModel().getGridGraph(side, side), context);
+	}
+
+	/**
+	 * Create a station on every node of a graph, connect the stations and compute their distances.
+	 *
+	 * @param graph - The graph
+	 * @param context - The context the stations belong to
+	 * @return ArrayList<Station> - The stations, in the order of the nodes of the graph
+	 */
+	static ArrayList<Station> createStations(Graph<ConnectionData> graph, SimulationContext context) {
+		ArrayList<Station> stations = new ArrayList<>();
+		for(Point p : graph.getNodes())
+			stations.add(new Station(p, context));
+		Topology topology = new Topology(stations, new ArrayList<LoadingDock>(), graph);
+		context.setTopology(topology);
+		context.setDistances(new DistanceTable(topology));
+		return stations;
+	}
+
+	/**
+	 * Get the neighbouring stations of a station, from the connections of the topology of its context.
+	 *
+	 * @param s - The station
+	 * @return ArrayList<Station> - The neighbours, in the order of the topology
+	 */
+	static ArrayList<Station> getNeighbours(Station s) {
+		Topology topology = s.getContext().getTopology();
+		ArrayList<Station> neighbours = new ArrayList<>();
+		for(int i = topology.getFirst(s.getId()); i < topology.getStationLimit(s.getId()); i++)
+			neighbours.add(topology.getStation(topology.getTargets()[i]));
+		return neighbours;
+	}
+
+	/**
+	 * Create a pod that stands at a station and is not registered with a simulator.
+	 *
+	 * @param s - The station
+	 * @param context - The context the pod belongs to
+	 * @return Pod
+	 */
+	static Pod createPod(Station s, SimulationContext context) {
+		Pod p = new Pod(s.getPosition(), POD_CAPACITY, null, SEED, context);
+		p.setCurrentStation(s);
+		s.setPod(p);
+		return p;
+	}
+}